@@ -0,0 +1,53 @@
+package com.mindera.users.benchmark;
+
+import com.mindera.users.admission.ClientRateLimiter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Run with -t to vary threads. One client puts every thread on the same bucket, the worst case for the CAS loop;
+// many clients is the usual spread, where the only shared state is the bucket map itself.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(Threads.MAX)
+@Fork(1)
+public class ClientRateLimiterBenchmark {
+
+    @Param({"1", "10000"})
+    int clients;
+
+    // Far above any request rate the benchmark reaches, so tryAcquire always takes the admit path; rejected always refuses.
+    @Param({"1000000000"})
+    double requestsPerSecond;
+
+    private ClientRateLimiter limiter;
+    private String[] clientKeys;
+
+    @Setup
+    public void setup() {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("benchmark", Map.of(
+                "myapp.rate-limit.endpoints.getUsersThrottled.requests-per-second", "1",
+                "myapp.rate-limit.endpoints.getUsersThrottled.burst", "1")));
+        limiter = new ClientRateLimiter(requestsPerSecond, 100, 60_000, 100_000, environment);
+        clientKeys = IntStream.range(0, clients).mapToObj(i -> "ip:10.0." + (i / 256) + "." + (i % 256)).toArray(String[]::new);
+    }
+
+    @Benchmark
+    public long tryAcquire() {
+        return limiter.tryAcquire("getUsers", clientKeys[ThreadLocalRandom.current().nextInt(clients)]);
+    }
+
+    @Benchmark
+    public long rejected() {
+        return limiter.tryAcquire("getUsersThrottled", clientKeys[ThreadLocalRandom.current().nextInt(clients)]);
+    }
+}
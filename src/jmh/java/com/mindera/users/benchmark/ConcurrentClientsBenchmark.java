@@ -0,0 +1,144 @@
+package com.mindera.users.benchmark;
+
+import com.mindera.users.UsersApplication;
+import com.mindera.users.entity.User;
+import com.mindera.users.service.UserService;
+import com.mindera.users.support.EmbeddedPostgresDatabase;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// One operation is a burst of `clients` simultaneous requests against the full servlet stack. The `requests` counter is
+// the request throughput; each request's latency goes into a histogram whose percentiles are printed per trial, since a
+// burst's average hides the tail. The virtual variant needs a Java 21 build (-Pjava21); raise ulimit -n above 20000.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class ConcurrentClientsBenchmark {
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Requests {
+        public long requests;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            requests = 0;
+        }
+    }
+
+    @Param({"1000", "5000", "10000"})
+    private int clients;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private URI userUri;
+    private URI pageUri;
+    private String authorization;
+    private final Histogram latencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Map<String, Object> properties = new LinkedHashMap<>(EmbeddedPostgresDatabase.properties());
+        properties.put("server.port", "0");
+        properties.put("myapp.virtual-threads.enabled", String.valueOf(threads.equals("virtual")));
+        // Both variants get the same connection and pool limits, so only the request threading differs.
+        properties.put("server.tomcat.max-connections", "20000");
+        properties.put("server.tomcat.accept-count", "1000");
+        properties.put("spring.datasource.hikari.maximum-pool-size", "50");
+        properties.put("myapp.admission.enabled", "false");
+        properties.put("myapp.rate-limit.enabled", "false");
+        properties.put("spring.jpa.hibernate.show-sql", "false");
+
+        context = new SpringApplicationBuilder(UsersApplication.class).properties(properties).run();
+        User user = context.getBean(UserService.class).addUser(User.builder()
+                .username("concurrent")
+                .password("password123")
+                .email("concurrent-" + System.nanoTime() + "@gmail.com")
+                .build());
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        userUri = URI.create("http://localhost:" + port + "/user/" + user.getId());
+        pageUri = URI.create("http://localhost:" + port + "/user?limit=20");
+        authorization = "Basic " + Base64.getEncoder().encodeToString("ricardo:ricardo".getBytes(StandardCharsets.UTF_8));
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    // Only measurement iterations count towards the percentiles.
+    @TearDown(Level.Iteration)
+    public void discardWarmup(IterationParams iteration) {
+        if (iteration.getType() == IterationType.WARMUP) {
+            latencies.reset();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(BenchmarkParams benchmark) {
+        System.out.printf("%n%s clients=%d threads=%s requests=%d latency ms: p50=%.3f p90=%.3f p99=%.3f p999=%.3f max=%.3f%n",
+                benchmark.getBenchmark(), clients, threads, latencies.getTotalCount(),
+                toMillis(latencies.getValueAtPercentile(50)), toMillis(latencies.getValueAtPercentile(90)),
+                toMillis(latencies.getValueAtPercentile(99)), toMillis(latencies.getValueAtPercentile(99.9)),
+                toMillis(latencies.getMaxValue()));
+        context.close();
+    }
+
+    // Served from the user cache: measures request handling alone.
+    @Benchmark
+    public long getUserById(Requests requests) {
+        return burst(userUri, requests);
+    }
+
+    // Goes to the database on every request: measures how each variant queues behind the connection pool.
+    @Benchmark
+    public long getUsersPage(Requests requests) {
+        return burst(pageUri, requests);
+    }
+
+    // Each request is timed from its own send, so the histogram holds what every one of the clients saw.
+    private long burst(URI uri, Requests requests) {
+        HttpRequest request = HttpRequest.newBuilder(uri).header("Authorization", authorization).GET().build();
+        List<CompletableFuture<HttpResponse<Void>>> responses = IntStream.range(0, clients)
+                .mapToObj(i -> {
+                    long start = System.nanoTime();
+                    return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, e) ->
+                            latencies.recordValue(Math.min(System.nanoTime() - start, HIGHEST_TRACKABLE_NANOS)));
+                })
+                .toList();
+        long ok = responses.stream().map(CompletableFuture::join).filter(response -> response.statusCode() == 200).count();
+        if (ok != clients) {
+            throw new IllegalStateException((clients - ok) + " of " + clients + " requests failed");
+        }
+        requests.requests += ok;
+        return ok;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,58 @@
+package com.mindera.users.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.mindera.users.entity.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+// Same payloads as UserJsonBenchmark, per wire format; the encoded size of each payload is printed once per trial.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserCodecBenchmark {
+
+    @Param({"json", "cbor"})
+    String format;
+
+    @Param({"1", "100", "10000"})
+    int size;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private List<User> users;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        ObjectMapper objectMapper = format.equals("cbor")
+                ? Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build()
+                : UserJsonBenchmark.OBJECT_MAPPER;
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, User.class));
+        reader = objectMapper.readerForListOf(User.class);
+        users = LongStream.rangeClosed(1, size).mapToObj(UserJsonBenchmark::user).toList();
+        encoded = writer.writeValueAsBytes(users);
+        System.out.printf("%n%s payload for %d users: %d bytes%n", format, size, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] serializeUsers() throws JsonProcessingException {
+        return writer.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public List<User> deserializeUsers() throws IOException {
+        return reader.readValue(encoded);
+    }
+}
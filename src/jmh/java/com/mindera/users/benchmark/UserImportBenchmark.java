@@ -0,0 +1,77 @@
+package com.mindera.users.benchmark;
+
+import com.mindera.users.UsersApplication;
+import com.mindera.users.dto.UserImportResult;
+import com.mindera.users.entity.User;
+import com.mindera.users.repository.UserRepository;
+import com.mindera.users.service.UserImportService;
+import com.mindera.users.service.UserService;
+import com.mindera.users.support.EmbeddedPostgresDatabase;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+// Onboarding throughput, single-row POST path against POST /user/batch: users per second is size / score.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UserImportBenchmark {
+
+    @Param({"1000"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private UserService userService;
+    private UserImportService userImportService;
+    private long next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(UsersApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(EmbeddedPostgresDatabase.properties())
+                .run();
+        userRepository = context.getBean(UserRepository.class);
+        userService = context.getBean(UserService.class);
+        userImportService = context.getBean(UserImportService.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clear() {
+        userRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int singleRow() {
+        List<User> users = newUsers();
+        users.forEach(userService::addUser);
+        return users.size();
+    }
+
+    @Benchmark
+    public List<UserImportResult> batch() {
+        return userImportService.importUsers(newUsers().iterator());
+    }
+
+    private List<User> newUsers() {
+        long first = next;
+        next += size;
+        return LongStream.range(first, first + size)
+                .mapToObj(n -> User.builder().username("import" + n).password("password123").email("import" + n + "@gmail.com").build())
+                .toList();
+    }
+}
@@ -0,0 +1,82 @@
+package com.mindera.users.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mindera.users.entity.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserJsonBenchmark {
+
+    static final ObjectMapper OBJECT_MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    private final ObjectWriter userWriter = OBJECT_MAPPER.writerFor(User.class);
+    private final ObjectReader userReader = OBJECT_MAPPER.readerFor(User.class);
+    private User user;
+    private byte[] userJson;
+
+    @State(Scope.Benchmark)
+    public static class Users {
+        @Param({"100", "10000"})
+        int size;
+
+        final ObjectWriter writer = OBJECT_MAPPER.writerFor(OBJECT_MAPPER.getTypeFactory().constructCollectionType(List.class, User.class));
+        final ObjectReader reader = OBJECT_MAPPER.readerForListOf(User.class);
+        List<User> users;
+        byte[] json;
+
+        @Setup
+        public void setup() throws JsonProcessingException {
+            users = LongStream.rangeClosed(1, size).mapToObj(UserJsonBenchmark::user).toList();
+            json = writer.writeValueAsBytes(users);
+        }
+    }
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        user = user(1L);
+        userJson = userWriter.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] serializeUser() throws JsonProcessingException {
+        return userWriter.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public User deserializeUser() throws IOException {
+        return userReader.readValue(userJson);
+    }
+
+    @Benchmark
+    public byte[] serializeUserList(Users users) throws JsonProcessingException {
+        return users.writer.writeValueAsBytes(users.users);
+    }
+
+    @Benchmark
+    public List<User> deserializeUserList(Users users) throws IOException {
+        return users.reader.readValue(users.json);
+    }
+
+    static User user(long id) {
+        return User.builder()
+                .id(id)
+                .username("user" + id)
+                .password("password" + id)
+                .email("user" + id + "@gmail.com")
+                .build();
+    }
+}
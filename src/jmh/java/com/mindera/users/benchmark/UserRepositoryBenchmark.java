@@ -0,0 +1,90 @@
+package com.mindera.users.benchmark;
+
+import com.mindera.users.UsersApplication;
+import com.mindera.users.dto.UserField;
+import com.mindera.users.entity.User;
+import com.mindera.users.repository.UserRepository;
+import com.mindera.users.support.EmbeddedPostgresDatabase;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UserRepositoryBenchmark {
+
+    @Param({"10000"})
+    private int seededUsers;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(UsersApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(EmbeddedPostgresDatabase.properties())
+                .properties("myapp.email-filter.enabled=false")
+                .run();
+        userRepository = context.getBean(UserRepository.class);
+
+        userRepository.deleteAllInBatch();
+        List<User> users = LongStream.rangeClosed(1, seededUsers).mapToObj(UserJsonBenchmark::user).toList();
+        users.forEach(user -> user.setId(null));
+        ids = userRepository.saveAll(users).stream().mapToLong(User::getId).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<User> findById() {
+        return userRepository.findById(randomId());
+    }
+
+    @Benchmark
+    public List<User> findPage() {
+        return userRepository.findPage(UserField.DEFAULT, randomId(), 100);
+    }
+
+    @Benchmark
+    public Set<String> findExistingEmails() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Set<String> emails = random.ints(100, 1, seededUsers * 2)
+                .mapToObj(i -> "user" + i + "@gmail.com")
+                .collect(Collectors.toSet());
+        return userRepository.findExistingEmails(emails);
+    }
+
+    @Benchmark
+    public User insertAndDelete() {
+        long n = ThreadLocalRandom.current().nextLong(Long.MAX_VALUE);
+        User user = userRepository.save(User.builder()
+                .username("benchmark")
+                .password("password123")
+                .email("benchmark" + n + "@gmail.com")
+                .build());
+        userRepository.deleteById(user.getId());
+        return user;
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
@@ -0,0 +1,64 @@
+package com.mindera.users.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.mindera.users.dto.UserField;
+import com.mindera.users.dto.UserPage;
+import com.mindera.users.dto.UserSerializer;
+import com.mindera.users.entity.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+// Writes into a discarding stream, as the converters write into the servlet stream, so gc.alloc.rate.norm is serializer-only.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserSerializerBenchmark {
+
+    @Param({"100", "10000"})
+    int size;
+
+    private final OutputStream sink = OutputStream.nullOutputStream();
+    private ObjectWriter databindWriter;
+    private ObjectWriter handWrittenWriter;
+    private ObjectWriter pageWriter;
+    private List<User> users;
+    private UserPage page;
+
+    @Setup
+    public void setup() {
+        ObjectMapper handWritten = Jackson2ObjectMapperBuilder.json()
+                .modules(new SimpleModule().addSerializer(new UserSerializer()))
+                .build();
+        databindWriter = UserJsonBenchmark.OBJECT_MAPPER.writerFor(UserJsonBenchmark.OBJECT_MAPPER.getTypeFactory().constructCollectionType(List.class, User.class));
+        handWrittenWriter = handWritten.writerFor(handWritten.getTypeFactory().constructCollectionType(List.class, User.class));
+        pageWriter = handWritten.writerFor(UserPage.class);
+        users = LongStream.rangeClosed(1, size).mapToObj(UserJsonBenchmark::user).toList();
+        page = new UserPage(users, UserField.DEFAULT);
+    }
+
+    @Benchmark
+    public void databindUsers() throws IOException {
+        databindWriter.writeValue(sink, users);
+    }
+
+    @Benchmark
+    public void handWrittenUsers() throws IOException {
+        handWrittenWriter.writeValue(sink, users);
+    }
+
+    @Benchmark
+    public void handWrittenPage() throws IOException {
+        pageWriter.writeValue(sink, page);
+    }
+}
@@ -0,0 +1,98 @@
+package com.mindera.users.benchmark;
+
+import com.mindera.users.cache.EmailBloomFilter;
+import com.mindera.users.cache.SharedUserCache;
+import com.mindera.users.cache.UserCache;
+import com.mindera.users.entity.User;
+import com.mindera.users.exceptions.UserPropertiesNullEmptyOrBlankException;
+import com.mindera.users.repository.UserRepository;
+import com.mindera.users.service.UserService;
+import com.mindera.users.service.UserWriteBehind;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    private static final User EXISTING = User.builder()
+            .id(1L)
+            .username("user123")
+            .password("password123")
+            .email("user@gmail.com")
+            .build();
+
+    private UserService userService;
+    private User patch;
+    private User replacement;
+    private User blank;
+
+    @Setup
+    public void setup() {
+        UserRepository userRepository = inMemoryRepository();
+        EmailBloomFilter emailBloomFilter = new EmailBloomFilter(false, 1, 0.01, userRepository, null);
+        UserCache userCache = new UserCache(10_000, 60_000, true, 5_000, SharedUserCache.NONE);
+        UserWriteBehind userWriteBehind = new UserWriteBehind(false, 1, 1, mock(JdbcTemplate.class), mock(PlatformTransactionManager.class), userCache);
+        userService = new UserService(userRepository, null, userCache, emailBloomFilter, userWriteBehind);
+
+        patch = User.builder().id(1L).username("patched").email("user@gmail.com").build();
+        replacement = User.builder().id(1L).username("replaced").password("replaced123").email("user@gmail.com").build();
+        blank = User.builder().username("user123").password(" ").email("user@gmail.com").build();
+    }
+
+    @Benchmark
+    public User addUser() {
+        return userService.addUser(EXISTING.toBuilder().id(null).build());
+    }
+
+    @Benchmark
+    public Object addUserRejected() {
+        try {
+            return userService.addUser(blank);
+        } catch (UserPropertiesNullEmptyOrBlankException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public User patchUser() {
+        return userService.patchUser(1L, patch);
+    }
+
+    @Benchmark
+    public User putUser() {
+        return userService.putUser(1L, replacement);
+    }
+
+    // Only what the service calls on its write paths; every lookup hands out a fresh copy, as JPA would.
+    private static UserRepository inMemoryRepository() {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(), new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> Optional.of(EXISTING.toBuilder().build());
+                    case "save" -> {
+                        User user = (User) args[0];
+                        if (user.getId() == null) {
+                            user.setId(EXISTING.getId());
+                        }
+                        yield user;
+                    }
+                    case "patch" -> Optional.of(EXISTING.toBuilder()
+                            .username(args[3] == null ? EXISTING.getUsername() : (String) args[3])
+                            .password(args[4] == null ? EXISTING.getPassword() : (String) args[4])
+                            .build());
+                    case "replace" -> Optional.of(EXISTING.toBuilder().username((String) args[3]).password((String) args[4]).build());
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,58 @@
+package com.mindera.users.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+class EndpointStats {
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Histogram responseTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+    private final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    // Response time runs from when the request was due under the fixed arrival rate, so stalls in the client or
+    // server are charged to every request that should have been sent meanwhile; service time runs from the send.
+    void record(long intendedStartNanos, long actualStartNanos, long endNanos, boolean success) {
+        responseTime.recordValue(Math.min(endNanos - intendedStartNanos, HIGHEST_TRACKABLE_NANOS));
+        serviceTime.recordValue(Math.min(endNanos - actualStartNanos, HIGHEST_TRACKABLE_NANOS));
+        requests.increment();
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    double percentile(double percentile) {
+        return toMillis(responseTime.getValueAtPercentile(percentile));
+    }
+
+    Map<String, Object> toResult(double durationSeconds) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("requests", requests.sum());
+        result.put("errors", errors.sum());
+        result.put("throughputPerSecond", requests.sum() / durationSeconds);
+        result.put("responseTimeMs", latencies(responseTime));
+        result.put("serviceTimeMs", latencies(serviceTime));
+        return result;
+    }
+
+    private static Map<String, Object> latencies(Histogram histogram) {
+        Map<String, Object> latencies = new LinkedHashMap<>();
+        latencies.put("mean", histogram.getMean() / TimeUnit.MILLISECONDS.toNanos(1));
+        latencies.put("p50", toMillis(histogram.getValueAtPercentile(50)));
+        latencies.put("p90", toMillis(histogram.getValueAtPercentile(90)));
+        latencies.put("p99", toMillis(histogram.getValueAtPercentile(99)));
+        latencies.put("p999", toMillis(histogram.getValueAtPercentile(99.9)));
+        latencies.put("max", toMillis(histogram.getMaxValue()));
+        return latencies;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
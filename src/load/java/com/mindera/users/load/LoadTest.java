@@ -0,0 +1,182 @@
+package com.mindera.users.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindera.users.UsersApplication;
+import com.mindera.users.entity.User;
+import com.mindera.users.repository.UserRepository;
+import com.mindera.users.support.EmbeddedPostgresDatabase;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+/**
+ * Boots the application against an embedded Postgres, seeds it and drives a mixed workload at a fixed arrival rate.
+ * Options are passed as {@code --name=value}: users, rate (requests per second), warmup and duration (seconds),
+ * mix (for example {@code GET_BY_ID=50,POST=10}), profile, max-in-flight, result (JSON path) and max-p99-ms, which
+ * makes the run fail when any endpoint's p99 response time exceeds it.
+ */
+public class LoadTest {
+    private static final String DEFAULT_MIX = "GET_BY_ID=50,GET_PAGE=10,POST=10,PATCH=10,PUT=10,DELETE=10";
+    private static final int SEED_CHUNK_SIZE = 1000;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int users = Integer.parseInt(options.getOrDefault("users", "10000"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "500"));
+        long warmupSeconds = Long.parseLong(options.getOrDefault("warmup", "10"));
+        long durationSeconds = Long.parseLong(options.getOrDefault("duration", "60"));
+        int maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "512"));
+        String profile = options.getOrDefault("profile", "");
+        Path resultPath = Path.of(options.getOrDefault("result", "target/load-result.json"));
+        Map<Workload.Operation, Integer> mix = parseMix(options.getOrDefault("mix", DEFAULT_MIX));
+        if (users < 1 || rate <= 0) {
+            throw new IllegalArgumentException("users and rate must be positive");
+        }
+
+        SpringApplicationBuilder application = new SpringApplicationBuilder(UsersApplication.class, LoadTestSecurityConfig.class)
+                .properties(EmbeddedPostgresDatabase.properties())
+                .properties("server.port=0")
+                // Every virtual user comes from the same address, so a per-client limit would throttle the whole run.
+                .properties("myapp.rate-limit.enabled=false");
+        if (!profile.isBlank()) {
+            application.profiles(profile.split(","));
+        }
+
+        Map<Workload.Operation, EndpointStats> stats = new EnumMap<>(Workload.Operation.class);
+        mix.keySet().forEach(operation -> stats.put(operation, new EndpointStats()));
+
+        try (ConfigurableApplicationContext context = application.run()) {
+            // Not the application's mapper: that one leaves the password out, and the request bodies need it.
+            ObjectMapper objectMapper = new ObjectMapper();
+            Workload workload = seed(context, objectMapper, mix, users);
+
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            Semaphore inFlight = new Semaphore(maxInFlight);
+            long start = System.nanoTime();
+            long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+            long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+            double intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+
+            for (long i = 0; ; i++) {
+                long intendedStart = start + (long) (i * intervalNanos);
+                if (intendedStart >= end) {
+                    break;
+                }
+                for (long wait = intendedStart - System.nanoTime(); wait > 0; wait = intendedStart - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                Workload.Request request = workload.next();
+                inFlight.acquireUninterruptibly();
+                long actualStart = System.nanoTime();
+                client.sendAsync(request.httpRequest(), HttpResponse.BodyHandlers.ofByteArray()).whenComplete((response, failure) -> {
+                    long now = System.nanoTime();
+                    inFlight.release();
+                    boolean success = failure == null && response.statusCode() / 100 == 2;
+                    if (intendedStart >= measureFrom) {
+                        stats.get(request.operation()).record(intendedStart, actualStart, now, success);
+                    }
+                    if (success && request.operation() == Workload.Operation.POST) {
+                        workload.created(readId(objectMapper, response.body()));
+                    }
+                });
+            }
+            inFlight.acquireUninterruptibly(maxInFlight);
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("profile", profile.isBlank() ? "default" : profile);
+            result.put("seededUsers", users);
+            result.put("targetRatePerSecond", rate);
+            result.put("warmupSeconds", warmupSeconds);
+            result.put("durationSeconds", durationSeconds);
+            result.put("mix", mix);
+            Map<String, Object> endpoints = new LinkedHashMap<>();
+            stats.forEach((operation, endpointStats) -> endpoints.put(operation.endpoint, endpointStats.toResult(durationSeconds)));
+            result.put("endpoints", endpoints);
+
+            Files.createDirectories(resultPath.toAbsolutePath().getParent());
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(resultPath.toFile(), result);
+            System.out.println(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(endpoints));
+        }
+
+        if (options.containsKey("max-p99-ms")) {
+            double maxP99 = Double.parseDouble(options.get("max-p99-ms"));
+            List<String> breaches = stats.entrySet().stream()
+                    .filter(entry -> entry.getValue().percentile(99) > maxP99)
+                    .map(entry -> entry.getKey().endpoint)
+                    .toList();
+            if (!breaches.isEmpty()) {
+                System.err.println("p99 response time above " + maxP99 + " ms for " + breaches);
+                System.exit(1);
+            }
+        }
+    }
+
+    private static Workload seed(ConfigurableApplicationContext context, ObjectMapper objectMapper,
+                                 Map<Workload.Operation, Integer> mix, int users) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        userRepository.deleteAllInBatch();
+
+        Map<Long, String> stableUsers = new HashMap<>();
+        List<Long> deletableIds = new ArrayList<>();
+        for (int from = 0; from < users; from += SEED_CHUNK_SIZE) {
+            List<User> chunk = IntStream.range(from, Math.min(from + SEED_CHUNK_SIZE, users))
+                    .mapToObj(i -> User.builder().username("user" + i).password("password" + i).email("user" + i + "@gmail.com").build())
+                    .toList();
+            for (User user : userRepository.saveAll(chunk)) {
+                if (deletableIds.size() * 10 < stableUsers.size()) {
+                    deletableIds.add(user.getId());
+                } else {
+                    stableUsers.put(user.getId(), user.getEmail());
+                }
+            }
+        }
+
+        Environment environment = context.getEnvironment();
+        URI baseUri = URI.create("http://localhost:" + environment.getProperty("local.server.port"));
+        String credentials = environment.getProperty("spring.security.user.name") + ":" + environment.getProperty("spring.security.user.password");
+        String authorization = "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+        return new Workload(baseUri, authorization, objectMapper, mix, stableUsers, deletableIds);
+    }
+
+    private static long readId(ObjectMapper objectMapper, byte[] body) {
+        try {
+            return objectMapper.readTree(body).path("id").asLong();
+        } catch (IOException e) {
+            return -1L;
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    private static Map<Workload.Operation, Integer> parseMix(String mix) {
+        Map<Workload.Operation, Integer> weights = new EnumMap<>(Workload.Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split("=");
+            weights.put(Workload.Operation.valueOf(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+}
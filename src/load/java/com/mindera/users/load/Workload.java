@@ -0,0 +1,119 @@
+package com.mindera.users.load;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindera.users.entity.User;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+class Workload {
+
+    enum Operation {
+        GET_BY_ID("GET /user/{id}"),
+        GET_PAGE("GET /user"),
+        POST("POST /user"),
+        PATCH("PATCH /user/{id}"),
+        PUT("PUT /user/{id}"),
+        DELETE("DELETE /user/{id}");
+
+        final String endpoint;
+
+        Operation(String endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+
+    record Request(Operation operation, HttpRequest httpRequest) {
+    }
+
+    private final URI baseUri;
+    private final String authorization;
+    private final ObjectMapper objectMapper;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final Map<Long, String> stableUsers;
+    private final Long[] stableIds;
+    private final Queue<Long> deletableIds = new ConcurrentLinkedQueue<>();
+    private final AtomicLong createdUsers = new AtomicLong();
+
+    // Reads and updates target a fixed set of users, deletes only ever take users nobody else is aiming at.
+    Workload(URI baseUri, String authorization, ObjectMapper objectMapper, Map<Operation, Integer> mix,
+             Map<Long, String> stableUsers, Collection<Long> deletableIds) {
+        this.baseUri = baseUri;
+        this.authorization = authorization;
+        this.objectMapper = objectMapper;
+        this.operations = mix.keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += mix.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        this.stableUsers = stableUsers;
+        this.stableIds = stableUsers.keySet().toArray(Long[]::new);
+        this.deletableIds.addAll(deletableIds);
+    }
+
+    Request next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        Operation operation = operations[0];
+        for (int i = 0; pick >= cumulativeWeights[i]; i++) {
+            operation = operations[i + 1];
+        }
+
+        long id = stableIds[random.nextInt(stableIds.length)];
+        String email = stableUsers.get(id);
+        return switch (operation) {
+            case GET_BY_ID -> new Request(operation, request("/user/" + id).GET().build());
+            case GET_PAGE -> new Request(operation, request("/user?after=" + id + "&limit=100").GET().build());
+            case POST -> post();
+            case PATCH -> new Request(operation, request("/user/" + id)
+                    .method("PATCH", json(User.builder().id(id).username("patched" + random.nextInt()).email(email).build()))
+                    .build());
+            case PUT -> new Request(operation, request("/user/" + id)
+                    .PUT(json(User.builder().id(id).username("put" + random.nextInt()).password("password" + random.nextInt()).email(email).build()))
+                    .build());
+            case DELETE -> delete();
+        };
+    }
+
+    private Request post() {
+        String email = "load" + createdUsers.incrementAndGet() + "-" + System.nanoTime() + "@gmail.com";
+        User user = User.builder().username("load").password("password123").email(email).build();
+        return new Request(Operation.POST, request("/user").POST(json(user)).build());
+    }
+
+    private Request delete() {
+        Long id = deletableIds.poll();
+        if (id == null) {
+            // Nothing left to delete; measure the not-found path rather than skip the slot.
+            id = -1L;
+        }
+        return new Request(Operation.DELETE, request("/user/" + id).DELETE().build());
+    }
+
+    void created(long id) {
+        deletableIds.add(id);
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Authorization", authorization)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json");
+    }
+
+    private HttpRequest.BodyPublisher json(User user) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(user));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.mindera.users.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Gradient concurrency limit: the limit grows while request latency stays near its long-run average and shrinks in
+ * proportion as latency climbs above it, so requests are turned away before they queue on the connection pool.
+ * Failed requests back off multiplicatively. The limit and the latency average change together in one CAS, so
+ * releases never wait on each other.
+ */
+class AdaptiveConcurrencyLimit {
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final int LONG_RTT_WINDOW = 100;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicReference<Estimate> estimate;
+
+    private record Estimate(double limit, double longRttNanos) {
+    }
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.estimate = new AtomicReference<>(new Estimate(initialLimit, 0));
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    // Returns the in-flight count including this request, or -1 when it is over the given share of the limit.
+    int tryAcquire(double share) {
+        int allowed = Math.max(1, (int) (estimate.get().limit() * share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    void release(long rttNanos, int inFlightAtStart, boolean failed) {
+        inFlight.decrementAndGet();
+        while (true) {
+            Estimate current = estimate.get();
+            Estimate next = failed ? backOff(current) : adjust(current, rttNanos, inFlightAtStart);
+            if (estimate.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    private Estimate backOff(Estimate current) {
+        return new Estimate(Math.max(minLimit, current.limit() * BACKOFF_RATIO), current.longRttNanos());
+    }
+
+    private Estimate adjust(Estimate current, long rttNanos, int inFlightAtStart) {
+        double limit = current.limit();
+        double longRttNanos = current.longRttNanos();
+        longRttNanos = longRttNanos == 0 ? rttNanos : longRttNanos + (rttNanos - longRttNanos) / LONG_RTT_WINDOW;
+        // After a slow spell the average would keep the limit low long after latency recovered, so let it catch up.
+        if (longRttNanos / rttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+        // A mostly idle endpoint says nothing about how much more it could take.
+        if (inFlightAtStart < limit / 2) {
+            return new Estimate(limit, longRttNanos);
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / rttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        return new Estimate(Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + newLimit * SMOOTHING)), longRttNanos);
+    }
+
+    int getLimit() {
+        return (int) estimate.get().limit();
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+}
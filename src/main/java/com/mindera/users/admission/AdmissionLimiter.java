@@ -0,0 +1,108 @@
+package com.mindera.users.admission;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// One adaptive limit per endpoint. Bulk endpoints only get a share of theirs, and are refused outright while any
+// cheap endpoint has recently had to refuse a request, so single-user calls keep the database to themselves.
+@Component
+public class AdmissionLimiter implements MeterBinder {
+
+    public record Permit(Endpoint endpoint, long startNanos, int inFlightAtStart) {
+    }
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double bulkShare;
+    private final long bulkShedMillis;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private volatile long cheapRejectedAtMillis;
+    private volatile MeterRegistry registry;
+
+    @Autowired
+    public AdmissionLimiter(@Value("${myapp.admission.initial-limit:20}") int initialLimit,
+                            @Value("${myapp.admission.min-limit:4}") int minLimit,
+                            @Value("${myapp.admission.max-limit:200}") int maxLimit,
+                            @Value("${myapp.admission.bulk-share:0.5}") double bulkShare,
+                            @Value("${myapp.admission.bulk-shed-millis:1000}") long bulkShedMillis) {
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.bulkShare = bulkShare;
+        this.bulkShedMillis = bulkShedMillis;
+    }
+
+    // Returns null when the request must be shed.
+    public Permit tryAcquire(String name, boolean bulk) {
+        Endpoint endpoint = endpoints.computeIfAbsent(name, this::newEndpoint);
+        if (bulk && System.currentTimeMillis() - cheapRejectedAtMillis < bulkShedMillis) {
+            endpoint.rejected.increment();
+            return null;
+        }
+
+        int inFlight = endpoint.limit.tryAcquire(bulk ? bulkShare : 1.0);
+        if (inFlight < 0) {
+            if (!bulk) {
+                cheapRejectedAtMillis = System.currentTimeMillis();
+            }
+            endpoint.rejected.increment();
+            return null;
+        }
+        return new Permit(endpoint, System.nanoTime(), inFlight);
+    }
+
+    public void release(Permit permit, boolean failed) {
+        permit.endpoint().limit.release(System.nanoTime() - permit.startNanos(), permit.inFlightAtStart(), failed);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        endpoints.values().forEach(endpoint -> endpoint.register(registry));
+    }
+
+    private Endpoint newEndpoint(String name) {
+        Endpoint endpoint = new Endpoint(name, new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit));
+        MeterRegistry current = registry;
+        if (current != null) {
+            endpoint.register(current);
+        }
+        return endpoint;
+    }
+
+    public static final class Endpoint {
+        private final String name;
+        private final AdaptiveConcurrencyLimit limit;
+        private final LongAdder rejected = new LongAdder();
+
+        private Endpoint(String name, AdaptiveConcurrencyLimit limit) {
+            this.name = name;
+            this.limit = limit;
+        }
+
+        private void register(MeterRegistry registry) {
+            Gauge.builder("users.admission.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                    .description("Current concurrency limit")
+                    .tag("endpoint", name)
+                    .register(registry);
+            Gauge.builder("users.admission.in-flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                    .description("Requests currently admitted")
+                    .tag("endpoint", name)
+                    .register(registry);
+            FunctionCounter.builder("users.admission.rejected", rejected, LongAdder::sum)
+                    .description("Requests shed with 503")
+                    .tag("endpoint", name)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.mindera.users.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token buckets per client and endpoint, kept as GCRA: each bucket is a single theoretical arrival time updated by CAS,
+ * so callers never block and distinct clients never touch the same memory. Rates default to
+ * {@code myapp.rate-limit.requests-per-second} and {@code burst}, and can be set per handler under
+ * {@code myapp.rate-limit.endpoints.<handler>.*}. Buckets idle for {@code idle-millis} are evicted; one that comes
+ * back starts full, which after a full refill period it would have been anyway.
+ */
+@Component
+public class ClientRateLimiter implements MeterBinder {
+
+    private record Key(String endpoint, String client) {
+    }
+
+    private record Endpoint(String name, long emissionIntervalNanos, long burstToleranceNanos, LongAdder rejected) {
+    }
+
+    private final double defaultRequestsPerSecond;
+    private final int defaultBurst;
+    private final Environment environment;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final Cache<Key, AtomicLong> buckets;
+    private final long originNanos = System.nanoTime();
+    private volatile MeterRegistry registry;
+
+    @Autowired
+    public ClientRateLimiter(@Value("${myapp.rate-limit.requests-per-second:100}") double defaultRequestsPerSecond,
+                             @Value("${myapp.rate-limit.burst:200}") int defaultBurst,
+                             @Value("${myapp.rate-limit.idle-millis:60000}") long idleMillis,
+                             @Value("${myapp.rate-limit.maximum-buckets:100000}") long maximumBuckets,
+                             Environment environment) {
+        this.defaultRequestsPerSecond = defaultRequestsPerSecond;
+        this.defaultBurst = defaultBurst;
+        this.environment = environment;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumBuckets)
+                .expireAfterAccess(idleMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    // Returns 0 when the request is allowed, otherwise how long the client has to wait before its next one is.
+    public long tryAcquire(String endpointName, String client) {
+        Endpoint endpoint = endpoints.computeIfAbsent(endpointName, this::newEndpoint);
+        AtomicLong theoreticalArrival = buckets.get(new Key(endpointName, client), key -> new AtomicLong());
+        long now = System.nanoTime() - originNanos;
+
+        while (true) {
+            long current = theoreticalArrival.get();
+            long arrival = Math.max(current, now);
+            long allowedAt = arrival - endpoint.burstToleranceNanos();
+            if (now < allowedAt) {
+                endpoint.rejected().increment();
+                return allowedAt - now;
+            }
+            if (theoreticalArrival.compareAndSet(current, arrival + endpoint.emissionIntervalNanos())) {
+                return 0;
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("users.rate-limit.buckets", buckets, Cache::estimatedSize)
+                .description("Client buckets currently tracked")
+                .register(registry);
+        endpoints.values().forEach(endpoint -> register(registry, endpoint));
+    }
+
+    private Endpoint newEndpoint(String name) {
+        String prefix = "myapp.rate-limit.endpoints." + name + ".";
+        double requestsPerSecond = environment.getProperty(prefix + "requests-per-second", Double.class, defaultRequestsPerSecond);
+        int burst = environment.getProperty(prefix + "burst", Integer.class, defaultBurst);
+        long emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        Endpoint endpoint = new Endpoint(name, emissionIntervalNanos, emissionIntervalNanos * Math.max(0, burst - 1), new LongAdder());
+
+        MeterRegistry current = registry;
+        if (current != null) {
+            register(current, endpoint);
+        }
+        return endpoint;
+    }
+
+    private static void register(MeterRegistry registry, Endpoint endpoint) {
+        FunctionCounter.builder("users.rate-limit.rejected", endpoint.rejected(), LongAdder::sum)
+                .description("Requests refused with 429 because the client exceeded the endpoint's rate")
+                .tag("endpoint", endpoint.name())
+                .register(registry);
+    }
+}
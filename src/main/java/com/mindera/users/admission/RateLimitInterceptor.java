@@ -0,0 +1,54 @@
+package com.mindera.users.admission;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.security.Principal;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Clients are the remote address, with the principal when there is one: callers share one basic-auth login, so the login
+// alone would be a global cap. X-Client-Id is honoured only from a trusted proxy, since any caller could rotate it to
+// dodge its bucket and flood the bucket cache.
+public class RateLimitInterceptor implements HandlerInterceptor {
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    private final ClientRateLimiter limiter;
+    private final Set<String> trustedProxies;
+
+    public RateLimitInterceptor(ClientRateLimiter limiter, Set<String> trustedProxies) {
+        this.limiter = limiter;
+        this.trustedProxies = trustedProxies;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod) || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+
+        long waitNanos = limiter.tryAcquire(handlerMethod.getMethod().getName(), client(request));
+        if (waitNanos > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1))));
+            return false;
+        }
+        return true;
+    }
+
+    private String client(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        String clientId = request.getHeader(CLIENT_ID_HEADER);
+        if (clientId != null && !clientId.isBlank() && trustedProxies.contains(address)) {
+            return "client:" + clientId.trim();
+        }
+
+        Principal principal = request.getUserPrincipal();
+        return principal != null ? "user:" + principal.getName() + "@" + address : "ip:" + address;
+    }
+}
@@ -0,0 +1,89 @@
+package com.mindera.users.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter with one bit per slot, sixty-four to a {@code long}. Values are never removed: a stale
+ * entry only costs a lookup, while a removal of a value this instance never added could hide other values.
+ */
+public class BloomFilter {
+    private static final long SEED_1 = 0x9E3779B97F4A7C15L;
+    private static final long SEED_2 = 0xC2B2AE3D27D4EB4FL;
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    public BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        long n = Math.max(1, expectedInsertions);
+        this.bitCount = Math.max(64, (long) Math.ceil(-n * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2))));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        this.bits = new AtomicLongArray(Math.toIntExact((bitCount + 63) / 64));
+    }
+
+    public void add(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long hash1 = hash(bytes, SEED_1);
+        long hash2 = hash(bytes, SEED_2);
+        for (int i = 0; i < hashCount; i++) {
+            set(index(hash1, hash2, i));
+        }
+    }
+
+    public boolean mightContain(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long hash1 = hash(bytes, SEED_1);
+        long hash2 = hash(bytes, SEED_2);
+        for (int i = 0; i < hashCount; i++) {
+            if (!isSet(index(hash1, hash2, i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public double expectedFalsePositiveProbability() {
+        long set = 0;
+        for (int word = 0; word < bits.length(); word++) {
+            set += Long.bitCount(bits.get(word));
+        }
+        return Math.pow((double) set / bitCount, hashCount);
+    }
+
+    public long memoryInBytes() {
+        return bits.length() * (long) Long.BYTES;
+    }
+
+    private long index(long hash1, long hash2, int i) {
+        return Math.floorMod(hash1 + i * hash2, bitCount);
+    }
+
+    private boolean isSet(long index) {
+        return (bits.get((int) (index >>> 6)) & (1L << index)) != 0;
+    }
+
+    private void set(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        while (true) {
+            long current = bits.get(word);
+            if ((current & mask) != 0 || bits.compareAndSet(word, current, current | mask)) {
+                return;
+            }
+        }
+    }
+
+    private static long hash(byte[] bytes, long seed) {
+        long hash = seed;
+        for (byte b : bytes) {
+            hash = (hash ^ b) * 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,114 @@
+package com.mindera.users.cache;
+
+import com.mindera.users.repository.UserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+@Component
+public class EmailBloomFilter implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(EmailBloomFilter.class);
+
+    private final BloomFilter filter;
+    private final boolean enabled;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final LongAdder definiteMisses = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private volatile boolean ready;
+
+    @Autowired
+    public EmailBloomFilter(@Value("${myapp.email-filter.enabled:true}") boolean enabled,
+                            @Value("${myapp.email-filter.expected-insertions:1000000}") long expectedInsertions,
+                            @Value("${myapp.email-filter.false-positive-probability:0.01}") double falsePositiveProbability,
+                            UserRepository userRepository,
+                            PlatformTransactionManager transactionManager) {
+        this.enabled = enabled;
+        this.filter = new BloomFilter(enabled ? expectedInsertions : 1, falsePositiveProbability);
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<String> emails = userRepository.streamAllEmails()) {
+                    emails.forEach(filter::add);
+                }
+            });
+            ready = true;
+        } catch (RuntimeException e) {
+            log.warn("Could not warm up the email filter, duplicate checks will go to the database", e);
+        }
+    }
+
+    public boolean mightContain(String email) {
+        if (!ready) {
+            return true;
+        }
+
+        boolean mightContain = filter.mightContain(normalize(email));
+        if (!mightContain) {
+            definiteMisses.increment();
+        }
+        return mightContain;
+    }
+
+    public void add(String email) {
+        if (enabled) {
+            filter.add(normalize(email));
+        }
+    }
+
+    public void recordFalsePositives(int count) {
+        falsePositives.add(count);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("users.email.filter.memory", filter, BloomFilter::memoryInBytes)
+                .baseUnit(BaseUnits.BYTES)
+                .description("Memory held by the email membership filter")
+                .register(registry);
+        Gauge.builder("users.email.filter.expected.fpp", filter, BloomFilter::expectedFalsePositiveProbability)
+                .description("False-positive probability estimated from the filter's fill ratio")
+                .register(registry);
+        Gauge.builder("users.email.filter.observed.fpp", this, EmailBloomFilter::observedFalsePositiveRate)
+                .description("Share of absent emails the filter could not rule out")
+                .register(registry);
+        FunctionCounter.builder("users.email.filter.skipped.lookups", definiteMisses, LongAdder::sum)
+                .description("Email lookups skipped because the filter ruled the email out")
+                .register(registry);
+    }
+
+    double observedFalsePositiveRate() {
+        double falsePositiveCount = falsePositives.sum();
+        double negatives = falsePositiveCount + definiteMisses.sum();
+        return negatives == 0 ? 0 : falsePositiveCount / negatives;
+    }
+
+    static String normalize(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,92 @@
+package com.mindera.users.cache;
+
+import com.mindera.users.entity.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+public class RedisSharedUserCache implements SharedUserCache {
+    public static final String INVALIDATION_CHANNEL = "users:invalidations";
+
+    private static final Logger log = LoggerFactory.getLogger(RedisSharedUserCache.class);
+    private static final String KEY_PREFIX = "user:id:";
+
+    private final RedisTemplate<String, User> userRedisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final Duration ttl;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public RedisSharedUserCache(RedisTemplate<String, User> userRedisTemplate,
+                                StringRedisTemplate stringRedisTemplate,
+                                RedisMessageListenerContainer listenerContainer,
+                                Duration ttl) {
+        this.userRedisTemplate = userRedisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public Optional<User> get(Long userId) {
+        try {
+            return Optional.ofNullable(userRedisTemplate.opsForValue().get(KEY_PREFIX + userId));
+        } catch (DataAccessException e) {
+            log.warn("Could not read user {} from Redis", userId, e);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void put(User user) {
+        try {
+            userRedisTemplate.opsForValue().set(KEY_PREFIX + user.getId(), user, ttl);
+            publishInvalidation(user.getId());
+        } catch (DataAccessException e) {
+            log.warn("Could not write user {} to Redis", user.getId(), e);
+        }
+    }
+
+    @Override
+    public void fill(User user) {
+        try {
+            userRedisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + user.getId(), user, ttl);
+        } catch (DataAccessException e) {
+            log.warn("Could not write user {} to Redis", user.getId(), e);
+        }
+    }
+
+    @Override
+    public void evict(Long userId) {
+        try {
+            userRedisTemplate.delete(KEY_PREFIX + userId);
+            publishInvalidation(userId);
+        } catch (DataAccessException e) {
+            log.warn("Could not evict user {} from Redis", userId, e);
+        }
+    }
+
+    @Override
+    public void onInvalidation(Consumer<Long> listener) {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String[] body = new String(message.getBody(), StandardCharsets.UTF_8).split(":", 2);
+            if (body.length == 2 && !instanceId.equals(body[0])) {
+                listener.accept(Long.valueOf(body[1]));
+            }
+        }, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    private void publishInvalidation(Long userId) {
+        stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, instanceId + ":" + userId);
+    }
+}
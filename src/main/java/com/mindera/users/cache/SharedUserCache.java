@@ -0,0 +1,28 @@
+package com.mindera.users.cache;
+
+import com.mindera.users.entity.User;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public interface SharedUserCache {
+    SharedUserCache NONE = new SharedUserCache() {
+    };
+
+    default Optional<User> get(Long userId) {
+        return Optional.empty();
+    }
+
+    default void put(User user) {
+    }
+
+    // Read-through fill: never overwrites an entry a writer already stored and never invalidates other instances.
+    default void fill(User user) {
+    }
+
+    default void evict(Long userId) {
+    }
+
+    default void onInvalidation(Consumer<Long> listener) {
+    }
+}
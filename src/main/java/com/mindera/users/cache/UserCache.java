@@ -0,0 +1,134 @@
+package com.mindera.users.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.mindera.users.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+@Component
+public class UserCache implements MeterBinder {
+    private final AsyncCache<Long, Optional<User>> cache;
+    private final boolean negativeCaching;
+    private final SharedUserCache sharedUserCache;
+
+    @Autowired
+    public UserCache(@Value("${myapp.user-cache.maximum-size:10000}") long maximumSize,
+                     @Value("${myapp.user-cache.ttl-in-millis:60000}") long ttlInMillis,
+                     @Value("${myapp.user-cache.negative-caching:true}") boolean negativeCaching,
+                     @Value("${myapp.user-cache.negative-ttl-in-millis:5000}") long negativeTtlInMillis,
+                     SharedUserCache sharedUserCache) {
+        this.negativeCaching = negativeCaching;
+        this.sharedUserCache = sharedUserCache;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new PresenceExpiry(TimeUnit.MILLISECONDS.toNanos(ttlInMillis), TimeUnit.MILLISECONDS.toNanos(negativeTtlInMillis)))
+                .recordStats()
+                .buildAsync();
+        sharedUserCache.onInvalidation(cache.synchronous()::invalidate);
+    }
+
+    // The loader runs outside of Caffeine's compute lock: a JDBC call under that monitor would pin a virtual thread's carrier.
+    public Optional<User> get(Long userId, Function<Long, Optional<User>> loader) {
+        CompletableFuture<Optional<User>> cached = cache.getIfPresent(userId);
+        if (cached == null) {
+            CompletableFuture<Optional<User>> loading = new CompletableFuture<>();
+            cached = cache.asMap().putIfAbsent(userId, loading);
+            if (cached == null) {
+                return load(userId, loader, loading);
+            }
+        }
+
+        try {
+            Optional<User> user = cached.join();
+            return user == null ? Optional.empty() : user;
+        } catch (CompletionException | CancellationException e) {
+            return load(userId, loader, new CompletableFuture<>());
+        }
+    }
+
+    // Never waits for an in-flight load or asks the shared tier; an absent result just means "not known locally".
+    public Optional<User> getIfCached(Long userId) {
+        CompletableFuture<Optional<User>> cached = cache.getIfPresent(userId);
+        if (cached == null || !cached.isDone() || cached.isCompletedExceptionally()) {
+            return Optional.empty();
+        }
+
+        Optional<User> user = cached.join();
+        return user == null ? Optional.empty() : user;
+    }
+
+    public void put(User user) {
+        Optional<User> copy = Optional.of(copy(user));
+        AfterCommit.run(() -> {
+            cache.put(user.getId(), CompletableFuture.completedFuture(copy));
+            sharedUserCache.put(copy.get());
+        });
+    }
+
+    public void evict(Long userId) {
+        cache.synchronous().invalidate(userId);
+        AfterCommit.run(() -> {
+            cache.synchronous().invalidate(userId);
+            sharedUserCache.evict(userId);
+        });
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "users");
+    }
+
+    private Optional<User> load(Long userId, Function<Long, Optional<User>> loader, CompletableFuture<Optional<User>> loading) {
+        try {
+            Optional<User> loaded = sharedUserCache.get(userId);
+            if (loaded.isEmpty()) {
+                loaded = loader.apply(userId).map(UserCache::copy);
+                loaded.ifPresent(sharedUserCache::fill);
+            }
+            loading.complete(loaded.isPresent() || negativeCaching ? loaded : null);
+            return loaded;
+        } catch (RuntimeException e) {
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static User copy(User user) {
+        return user.toBuilder().build();
+    }
+
+    private record PresenceExpiry(long ttlNanos, long negativeTtlNanos) implements Expiry<Long, Optional<User>> {
+        @Override
+        public long expireAfterCreate(Long userId, Optional<User> user, long currentTime) {
+            return user.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long userId, Optional<User> user, long currentTime, long currentDuration) {
+            return expireAfterCreate(userId, user, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long userId, Optional<User> user, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.mindera.users.cache;
+
+import com.mindera.users.entity.User;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.*;
+
+public class UserRedisSerializer implements RedisSerializer<User> {
+    private static final byte FORMAT = 2;
+    private static final byte UNVERSIONED_FORMAT = 1;
+
+    @Override
+    public byte[] serialize(User user) {
+        if (user == null) {
+            return null;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT);
+            out.writeLong(user.getId());
+            writeNullable(out, user.getUsername());
+            writeNullable(out, user.getPassword());
+            writeNullable(out, user.getEmail());
+            out.writeBoolean(user.getVersion() != null);
+            if (user.getVersion() != null) {
+                out.writeLong(user.getVersion());
+            }
+        } catch (IOException e) {
+            throw new SerializationException("Could not serialize user " + user.getId(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public User deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            byte format = in.readByte();
+            if (format != FORMAT && format != UNVERSIONED_FORMAT) {
+                throw new SerializationException("Unknown user format " + format);
+            }
+            User user = User.builder()
+                    .id(in.readLong())
+                    .username(readNullable(in))
+                    .password(readNullable(in))
+                    .email(readNullable(in))
+                    .build();
+            if (format == FORMAT && in.readBoolean()) {
+                user.setVersion(in.readLong());
+            }
+            return user;
+        } catch (IOException e) {
+            throw new SerializationException("Could not deserialize user", e);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,31 @@
+package com.mindera.users.config;
+
+import com.mindera.users.admission.AdmissionInterceptor;
+import com.mindera.users.admission.AdmissionLimiter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnProperty(name = "myapp.admission.enabled", havingValue = "true")
+public class AdmissionConfig implements WebMvcConfigurer {
+
+    private final AdmissionLimiter admissionLimiter;
+    private final long retryAfterSeconds;
+
+    @Autowired
+    public AdmissionConfig(AdmissionLimiter admissionLimiter, @Value("${myapp.admission.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.admissionLimiter = admissionLimiter;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    // Right after rate limiting, so a shed request costs no statement accounting or handler work.
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AdmissionInterceptor(admissionLimiter, retryAfterSeconds)).order(Ordered.HIGHEST_PRECEDENCE + 1);
+    }
+}
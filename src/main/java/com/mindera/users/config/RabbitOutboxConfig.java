@@ -0,0 +1,39 @@
+package com.mindera.users.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindera.users.outbox.RabbitUserChangePublisher;
+import com.mindera.users.outbox.UserChangePublisher;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RabbitOutboxConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "myapp.outbox.rabbit.enabled", havingValue = "false", matchIfMissing = true)
+    public UserChangePublisher noUserChangePublisher() {
+        return UserChangePublisher.NONE;
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "myapp.outbox.rabbit.enabled", havingValue = "true")
+    static class RabbitUserChangePublisherConfig {
+
+        @Bean
+        public TopicExchange userChangesExchange(@Value("${myapp.outbox.rabbit.exchange}") String exchange) {
+            return new TopicExchange(exchange);
+        }
+
+        @Bean
+        public UserChangePublisher rabbitUserChangePublisher(RabbitTemplate rabbitTemplate,
+                                                             ObjectMapper objectMapper,
+                                                             @Value("${myapp.outbox.rabbit.exchange}") String exchange,
+                                                             @Value("${myapp.outbox.rabbit.confirm-timeout-millis}") long confirmTimeoutMillis) {
+            return new RabbitUserChangePublisher(rabbitTemplate, objectMapper, exchange, confirmTimeoutMillis);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.mindera.users.config;
+
+import com.mindera.users.admission.ClientRateLimiter;
+import com.mindera.users.admission.RateLimitInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Set;
+
+@Configuration
+@ConditionalOnProperty(name = "myapp.rate-limit.enabled", havingValue = "true")
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    private final ClientRateLimiter clientRateLimiter;
+    private final Set<String> trustedProxies;
+
+    @Autowired
+    public RateLimitConfig(ClientRateLimiter clientRateLimiter,
+                           @Value("${myapp.rate-limit.trusted-proxies:}") Set<String> trustedProxies) {
+        this.clientRateLimiter = clientRateLimiter;
+        this.trustedProxies = trustedProxies;
+    }
+
+    // Ahead of admission control, so a noisy client is refused before it can take one of the endpoint's permits.
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RateLimitInterceptor(clientRateLimiter, trustedProxies)).order(Ordered.HIGHEST_PRECEDENCE);
+    }
+}
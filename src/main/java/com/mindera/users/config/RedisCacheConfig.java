@@ -0,0 +1,56 @@
+package com.mindera.users.config;
+
+import com.mindera.users.cache.RedisSharedUserCache;
+import com.mindera.users.cache.SharedUserCache;
+import com.mindera.users.cache.UserRedisSerializer;
+import com.mindera.users.entity.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+
+@Configuration
+public class RedisCacheConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "myapp.redis-cache.enabled", havingValue = "false", matchIfMissing = true)
+    public SharedUserCache noSharedUserCache() {
+        return SharedUserCache.NONE;
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "myapp.redis-cache.enabled", havingValue = "true")
+    static class RedisSharedUserCacheConfig {
+
+        @Bean
+        public RedisTemplate<String, User> userRedisTemplate(RedisConnectionFactory connectionFactory) {
+            RedisTemplate<String, User> template = new RedisTemplate<>();
+            template.setConnectionFactory(connectionFactory);
+            template.setKeySerializer(RedisSerializer.string());
+            template.setValueSerializer(new UserRedisSerializer());
+            return template;
+        }
+
+        @Bean
+        public RedisMessageListenerContainer userInvalidationListenerContainer(RedisConnectionFactory connectionFactory) {
+            RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(connectionFactory);
+            return container;
+        }
+
+        @Bean
+        public SharedUserCache redisSharedUserCache(RedisTemplate<String, User> userRedisTemplate,
+                                                    StringRedisTemplate stringRedisTemplate,
+                                                    RedisMessageListenerContainer userInvalidationListenerContainer,
+                                                    @Value("${myapp.redis-ttl-in-millis}") long ttlInMillis) {
+            return new RedisSharedUserCache(userRedisTemplate, stringRedisTemplate, userInvalidationListenerContainer, Duration.ofMillis(ttlInMillis));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.mindera.users.config;
+
+import com.mindera.users.datasource.ReadYourWritesInterceptor;
+import com.mindera.users.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single datasource with a primary plus the replicas in {@code myapp.replicas.urls}. Replicas share the
+ * primary's credentials and {@code spring.datasource.hikari.*} pool settings. Read-only transactions go to a replica
+ * unless the client wrote within the last {@code myapp.replicas.sticky-millis}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "myapp.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfig implements WebMvcConfigurer {
+
+    @Value("${myapp.replicas.sticky-millis:2000}")
+    private long stickyMillis;
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties,
+                                                             Environment environment,
+                                                             @Value("${myapp.replicas.urls}") List<String> urls,
+                                                             @Value("${myapp.replicas.selection:round-robin}") ReplicaRoutingDataSource.Selection selection,
+                                                             @Value("${myapp.replicas.retry-after-millis:5000}") long retryAfterMillis,
+                                                             @Value("${myapp.replicas.connection-timeout-millis:250}") long connectionTimeoutMillis) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = pool(properties.initializeDataSourceBuilder().type(HikariDataSource.class).build(), binder);
+        primary.setPoolName("users-primary");
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource replica = pool(properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build(), binder);
+            replica.setPoolName("users-replica-" + replicas.size());
+            replica.setReadOnly(true);
+            // A replica that is down must fail fast, both at startup and per request, so reads fall through to the next one.
+            replica.setConnectionTimeout(connectionTimeoutMillis);
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, selection, retryAfterMillis);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    // Binds what Boot would bind onto its own pool; the replica-specific settings applied afterwards still win.
+    private static HikariDataSource pool(HikariDataSource dataSource, Binder binder) {
+        return binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource)).orElse(dataSource);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ReadYourWritesInterceptor(stickyMillis));
+    }
+}
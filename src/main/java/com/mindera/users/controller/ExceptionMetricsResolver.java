@@ -0,0 +1,42 @@
+package com.mindera.users.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Counts every exception that reaches the dispatcher and leaves the actual resolution to the resolvers after it.
+@Component
+public class ExceptionMetricsResolver implements HandlerExceptionResolver, Ordered {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Class<?>, Counter> counters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ExceptionMetricsResolver(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        counters.computeIfAbsent(ex.getClass(), type -> Counter.builder("users.exceptions")
+                        .description("Exceptions thrown while handling user API requests")
+                        .tag("exception", type.getSimpleName())
+                        .register(meterRegistry))
+                .increment();
+        return null;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,89 @@
+package com.mindera.users.controller;
+
+import com.mindera.users.dto.UserDeleteResult;
+import com.mindera.users.dto.UserImportResult;
+import com.mindera.users.entity.User;
+import com.mindera.users.service.ReactiveUserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static com.mindera.users.controller.UserController.APPLICATION_NDJSON_VALUE;
+import static com.mindera.users.controller.UserController.NEXT_CURSOR_HEADER;
+
+@RestController
+@RequestMapping("/user")
+@Profile("reactive")
+public class ReactiveUserController {
+
+    private final ReactiveUserService userService;
+
+    @Autowired
+    public ReactiveUserController(ReactiveUserService userService) {
+        this.userService = userService;
+    }
+
+    // The cursor is resolved up front so the header can be sent before the page streams; the page is then bounded by it.
+    @GetMapping
+    public Mono<ResponseEntity<Flux<User>>> getUsers(@RequestParam(required = false) Long after,
+                                                     @RequestParam(defaultValue = "100") int limit) {
+        return userService.getPageEnd(after, limit)
+                .map(pageEnd -> ResponseEntity.ok()
+                        .header(NEXT_CURSOR_HEADER, String.valueOf(pageEnd))
+                        .body(userService.getUsers(after, pageEnd, limit)))
+                .switchIfEmpty(Mono.fromSupplier(() -> ResponseEntity.ok().body(userService.getUsers(after, null, limit))));
+    }
+
+    @GetMapping("/search")
+    public Flux<User> searchUsers(@RequestParam String q,
+                                  @RequestParam(defaultValue = "0") int offset,
+                                  @RequestParam(defaultValue = "20") int limit) {
+        return userService.searchUsers(q, offset, limit);
+    }
+
+    @GetMapping(value = "/export", produces = APPLICATION_NDJSON_VALUE)
+    public Flux<User> exportUsers() {
+        return userService.exportUsers();
+    }
+
+    @PostMapping
+    public Mono<User> addUser(@RequestBody User user) {
+        return userService.addUser(user);
+    }
+
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE})
+    public Flux<UserImportResult> importUsers(@RequestBody Flux<User> users) {
+        return userService.importUsers(users);
+    }
+
+    @GetMapping("/{userId}")
+    public Mono<User> getUserById(@PathVariable Long userId) {
+        return userService.getUserById(userId);
+    }
+
+    @DeleteMapping("/{userId}")
+    public Mono<Void> deleteUserById(@PathVariable Long userId) {
+        return userService.deleteUserById(userId);
+    }
+
+    @DeleteMapping(params = "ids")
+    public Mono<UserDeleteResult> deleteUsersById(@RequestParam List<Long> ids) {
+        return userService.deleteUsersById(ids);
+    }
+
+    @PatchMapping("/{userId}")
+    public Mono<User> patchUser(@PathVariable Long userId, @RequestBody User updatedUser) {
+        return userService.patchUser(userId, updatedUser);
+    }
+
+    @PutMapping("/{userId}")
+    public Mono<User> putUser(@PathVariable Long userId, @RequestBody User updatedUser) {
+        return userService.putUser(userId, updatedUser);
+    }
+}
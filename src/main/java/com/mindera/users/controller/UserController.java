@@ -1,27 +1,118 @@
 package com.mindera.users.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mindera.users.admission.BulkRequest;
+import com.mindera.users.dto.UserDeleteResult;
+import com.mindera.users.dto.UserField;
+import com.mindera.users.dto.UserImportResult;
+import com.mindera.users.dto.UserPage;
+import com.mindera.users.dto.UserProjection;
 import com.mindera.users.entity.User;
+import com.mindera.users.exceptions.UserPreconditionFailedException;
+import com.mindera.users.exceptions.UserVersionConflictException;
+import com.mindera.users.service.UserImportService;
 import com.mindera.users.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/user")
+@Profile("!reactive")
 public class UserController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final String APPLICATION_CBOR_SEQ_VALUE = "application/cbor-seq";
+
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(APPLICATION_NDJSON_VALUE);
+    private static final MediaType APPLICATION_CBOR_SEQ = MediaType.parseMediaType(APPLICATION_CBOR_SEQ_VALUE);
+
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper cborMapper;
+    private final ObjectWriter exportWriter;
+    private final ObjectWriter cborExportWriter;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserImportService userImportService, ObjectMapper objectMapper,
+                          MappingJackson2CborHttpMessageConverter cborConverter) {
         this.userService = userService;
+        this.userImportService = userImportService;
+        this.objectMapper = objectMapper;
+        this.cborMapper = cborConverter.getObjectMapper();
+        this.exportWriter = objectMapper.writerFor(User.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.cborExportWriter = cborMapper.writerFor(User.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
+    @BulkRequest
     @GetMapping
-    public List<User> getUsers() {
-        return userService.getUsers();
+    public ResponseEntity<UserPage> getUsers(@RequestParam(required = false) Long after,
+                                             @RequestParam(defaultValue = "100") int limit,
+                                             @RequestParam(required = false) List<String> fields,
+                                             WebRequest request) {
+        Set<UserField> selectedFields = UserField.parse(fields);
+        // Read before the page: a write landing in between then pairs a newer page with an older tag, never the reverse.
+        String eTag = UserETags.ofChanges(userService.getUsersChangeToken(), userService.getUsersPendingUpdates(),
+                request.getHeader(HttpHeaders.ACCEPT));
+        if (notModified(request, eTag)) {
+            return null;
+        }
+
+        List<User> users = userService.getUsers(after, limit, selectedFields);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT);
+        if (users.size() == limit) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(users.get(users.size() - 1).getId()));
+        }
+        return response.body(new UserPage(users, selectedFields));
+    }
+
+    @BulkRequest
+    @GetMapping("/search")
+    public List<User> searchUsers(@RequestParam String q,
+                                  @RequestParam(defaultValue = "0") int offset,
+                                  @RequestParam(defaultValue = "20") int limit) {
+        return userService.searchUsers(q, offset, limit);
+    }
+
+    @BulkRequest
+    @GetMapping(value = "/export", produces = {APPLICATION_NDJSON_VALUE, APPLICATION_CBOR_SEQ_VALUE})
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = "*/*") String accept) {
+        if (exportType(accept).equals(APPLICATION_CBOR_SEQ)) {
+            return ResponseEntity.ok().contentType(APPLICATION_CBOR_SEQ).varyBy(HttpHeaders.ACCEPT).body(outputStream -> {
+                try (JsonGenerator generator = cborMapper.getFactory().createGenerator(outputStream)) {
+                    userService.exportUsers(user -> writeItem(generator, user));
+                }
+            });
+        }
+
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).varyBy(HttpHeaders.ACCEPT).body(outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                userService.exportUsers(user -> writeLine(generator, user));
+            }
+        });
     }
 
     @PostMapping
@@ -29,9 +120,44 @@ public class UserController {
         return userService.addUser(user);
     }
 
+    @BulkRequest
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public List<UserImportResult> importUsers(@RequestBody List<User> users) {
+        return userImportService.importUsers(users.iterator());
+    }
+
+    @BulkRequest
+    @PostMapping(value = "/batch", consumes = APPLICATION_NDJSON_VALUE)
+    public List<UserImportResult> importUsersNdjson(InputStream body) throws IOException {
+        try (MappingIterator<User> users = objectMapper.readerFor(User.class).readValues(body)) {
+            return userImportService.importUsers(users);
+        }
+    }
+
+    @BulkRequest
+    @PostMapping(value = "/batch", consumes = APPLICATION_CBOR_SEQ_VALUE)
+    public List<UserImportResult> importUsersCborSeq(InputStream body) throws IOException {
+        try (MappingIterator<User> users = cborMapper.readerFor(User.class).readValues(body)) {
+            return userImportService.importUsers(users);
+        }
+    }
+
     @GetMapping("/{userId}")
-    public Optional<User> getUserById(@PathVariable Long userId) {
-        return userService.getUserById(userId);
+    public ResponseEntity<UserProjection> getUserById(@PathVariable Long userId,
+                                                      @RequestParam(required = false) List<String> fields,
+                                                      WebRequest request) {
+        Set<UserField> selectedFields = UserField.parse(fields);
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Long> version = userService.getUserVersion(userId);
+            if (version.isPresent() && notModified(request, UserETags.ofVersion(version.get(), accept))) {
+                return null;
+            }
+        }
+
+        // Single reads come from the entity cache and are projected in memory; column pruning pays off on pages.
+        User user = userService.getUserById(userId).get();
+        return ok(user, accept).body(new UserProjection(user, selectedFields));
     }
 
     @DeleteMapping("/{userId}")
@@ -39,14 +165,83 @@ public class UserController {
         userService.deleteUserById(userId);
     }
 
+    @BulkRequest
+    @DeleteMapping(params = "ids")
+    public UserDeleteResult deleteUsersById(@RequestParam List<Long> ids) {
+        return userService.deleteUsersById(ids);
+    }
+
     @PatchMapping("/{userId}")
-    public User patchUser(@PathVariable Long userId, @RequestBody User updatedUser) {
-        return userService.patchUser(userId, updatedUser);
+    public ResponseEntity<User> patchUser(@PathVariable Long userId, @RequestBody User updatedUser,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                          @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return update(ifMatch, accept, updatedUser, () -> userService.patchUser(userId, updatedUser));
     }
 
 
     @PutMapping("/{userId}")
-    public User putUser(@PathVariable Long userId, @RequestBody User updatedUser) {
-        return userService.putUser(userId, updatedUser);
+    public ResponseEntity<User> putUser(@PathVariable Long userId, @RequestBody User updatedUser,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return update(ifMatch, accept, updatedUser, () -> userService.putUser(userId, updatedUser));
+    }
+
+    // The If-Match tag becomes the expected version, so the conditional update itself checks the precondition.
+    private static ResponseEntity<User> update(String ifMatch, String accept, User updatedUser, Supplier<User> update) {
+        if (ifMatch == null) {
+            User user = update.get();
+            return ok(user, accept).body(user);
+        }
+
+        updatedUser.setVersion(UserETags.expectedVersion(ifMatch));
+        try {
+            User user = update.get();
+            return ok(user, accept).body(user);
+        } catch (UserVersionConflictException e) {
+            throw new UserPreconditionFailedException(e.getMessage());
+        }
+    }
+
+    private static ResponseEntity.BodyBuilder ok(User user, String accept) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT);
+        if (user.getVersion() != null) {
+            response.eTag(UserETags.ofVersion(user.getVersion(), accept));
+        }
+        return response;
+    }
+
+    // Vary goes on before the check so that a 304 carries it as well as a 200.
+    private static boolean notModified(WebRequest request, String eTag) {
+        if (request instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) {
+            servletRequest.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        return request.checkNotModified(eTag);
+    }
+
+    // Only an explicit application/cbor-seq selects CBOR, so clients sending */* keep getting NDJSON.
+    private static MediaType exportType(String accept) {
+        for (MediaType type : MediaType.parseMediaTypes(accept)) {
+            if (type.equalsTypeAndSubtype(APPLICATION_CBOR_SEQ) || type.equalsTypeAndSubtype(APPLICATION_NDJSON)) {
+                return type.equalsTypeAndSubtype(APPLICATION_CBOR_SEQ) ? APPLICATION_CBOR_SEQ : APPLICATION_NDJSON;
+            }
+        }
+        return APPLICATION_NDJSON;
+    }
+
+    private void writeItem(JsonGenerator generator, User user) {
+        try {
+            cborExportWriter.writeValue(generator, user);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeLine(JsonGenerator generator, User user) {
+        try {
+            exportWriter.writeValue(generator, user);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
\ No newline at end of file
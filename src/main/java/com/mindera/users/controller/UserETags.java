@@ -0,0 +1,63 @@
+package com.mindera.users.controller;
+
+import com.mindera.users.exceptions.UserPreconditionFailedException;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+final class UserETags {
+    private static final String CBOR_SUFFIX = "-cbor";
+
+    private UserETags() {
+    }
+
+    // JSON and CBOR bodies of the same state differ byte for byte, so a strong tag has to name the encoding too.
+    static String ofVersion(long version, String accept) {
+        return "\"" + version + suffix(accept) + "\"";
+    }
+
+    // The pending update count only moves under write-behind; without it the tag keeps its plain form.
+    static String ofChanges(long changeToken, long pendingUpdates, String accept) {
+        return "\"changes-" + changeToken + (pendingUpdates == 0 ? "" : "." + pendingUpdates) + suffix(accept) + "\"";
+    }
+
+    // Weak tags never match under If-Match, and a list of versions cannot be checked by a single conditional update.
+    static Long expectedVersion(String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            String value = tag.substring(1, tag.length() - 1);
+            if (value.endsWith(CBOR_SUFFIX)) {
+                value = value.substring(0, value.length() - CBOR_SUFFIX.length());
+            }
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException ignored) {
+                // falls through to the precondition failure below
+            }
+        }
+        throw new UserPreconditionFailedException("If-Match must be * or a single strong user ETag");
+    }
+
+    // Follows content negotiation: the highest quality wins, ties go to the first listed, and wildcards get JSON.
+    private static String suffix(String accept) {
+        if (accept == null) {
+            return "";
+        }
+
+        try {
+            MediaType preferred = null;
+            for (MediaType type : MediaType.parseMediaTypes(accept)) {
+                if ((type.isCompatibleWith(MediaType.APPLICATION_JSON) || type.isCompatibleWith(MediaType.APPLICATION_CBOR))
+                        && (preferred == null || type.getQualityValue() > preferred.getQualityValue())) {
+                    preferred = type;
+                }
+            }
+            return preferred != null && preferred.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR) ? CBOR_SUFFIX : "";
+        } catch (InvalidMediaTypeException e) {
+            return "";
+        }
+    }
+}
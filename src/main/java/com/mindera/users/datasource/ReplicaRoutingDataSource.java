@@ -0,0 +1,165 @@
+package com.mindera.users.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Sends connections for read-only transactions to a replica and everything else to the primary. Only routes correctly
+ * behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which defers fetching the
+ * connection until the transaction's read-only flag has been bound.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements MeterBinder, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    public enum Selection {
+        ROUND_ROBIN, LEAST_BUSY
+    }
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final Selection selection;
+    private final long retryAfterMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder replicaConnections = new LongAdder();
+    private final LongAdder replicaFailures = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas, Selection selection, long retryAfterMillis) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.selection = selection;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    // Bound for the rest of a request after the client's own write, so it reads what it just wrote.
+    public static void requirePrimary() {
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+    }
+
+    public static void clearPrimaryRequirement() {
+        PRIMARY_REQUIRED.remove();
+    }
+
+    // For reads whose result outlives the request, like cache fills, where a lagging replica would be served for the whole TTL.
+    public static <T> T readFromPrimary(Supplier<T> read) {
+        Boolean required = PRIMARY_REQUIRED.get();
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            if (required == null) {
+                PRIMARY_REQUIRED.remove();
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || PRIMARY_REQUIRED.get() != null) {
+            return primaryConnection();
+        }
+
+        long now = System.currentTimeMillis();
+        for (Replica replica : candidates()) {
+            if (replica.downUntil > now) {
+                continue;
+            }
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replicaConnections.increment();
+                return connection;
+            } catch (SQLException e) {
+                replica.downUntil = now + retryAfterMillis;
+                replicaFailures.increment();
+                log.warn("Replica {} is unavailable, skipping it for {} ms", replica.dataSource.getPoolName(), retryAfterMillis, e);
+            }
+        }
+
+        fallbacks.increment();
+        return primaryConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Credentials come from the primary and replica pool configuration");
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("users.datasource.connections", primaryConnections, LongAdder::sum)
+                .description("Connections handed out, by the database they were routed to")
+                .tag("target", "primary")
+                .register(registry);
+        FunctionCounter.builder("users.datasource.connections", replicaConnections, LongAdder::sum)
+                .description("Connections handed out, by the database they were routed to")
+                .tag("target", "replica")
+                .register(registry);
+        FunctionCounter.builder("users.datasource.replica.failures", replicaFailures, LongAdder::sum)
+                .description("Replica connection attempts that failed and took the replica out of rotation")
+                .register(registry);
+        FunctionCounter.builder("users.datasource.replica.fallbacks", fallbacks, LongAdder::sum)
+                .description("Read-only connections served by the primary because no replica was available")
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+        primary.close();
+    }
+
+    private Connection primaryConnection() throws SQLException {
+        Connection connection = primary.getConnection();
+        primaryConnections.increment();
+        return connection;
+    }
+
+    // Every replica is a candidate, so a failed one falls through to the next before the primary is used.
+    private List<Replica> candidates() {
+        if (selection == Selection.LEAST_BUSY) {
+            List<Replica> candidates = new ArrayList<>(replicas);
+            candidates.sort(Comparator.comparingInt(Replica::activeConnections));
+            return candidates;
+        }
+
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        List<Replica> candidates = new ArrayList<>(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            candidates.add(replicas.get((start + i) % replicas.size()));
+        }
+        return candidates;
+    }
+
+    private static final class Replica {
+        private final HikariDataSource dataSource;
+        private volatile long downUntil;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private int activeConnections() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections();
+        }
+    }
+}
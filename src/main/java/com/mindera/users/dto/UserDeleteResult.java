@@ -0,0 +1,13 @@
+package com.mindera.users.dto;
+
+import lombok.*;
+
+@NoArgsConstructor
+@Data
+@AllArgsConstructor
+@Builder
+public class UserDeleteResult {
+    private int requested;
+    private int deleted;
+
+}
@@ -0,0 +1,119 @@
+package com.mindera.users.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.mindera.users.entity.User;
+import com.mindera.users.exceptions.InvalidFieldsException;
+
+import java.io.IOException;
+import java.util.*;
+
+public enum UserField {
+    ID("id") {
+        @Override
+        public Object get(User user) {
+            return user.getId();
+        }
+
+        @Override
+        public void set(User user, Object value) {
+            user.setId((Long) value);
+        }
+    },
+    USERNAME("username") {
+        @Override
+        public Object get(User user) {
+            return user.getUsername();
+        }
+
+        @Override
+        public void set(User user, Object value) {
+            user.setUsername((String) value);
+        }
+    },
+    PASSWORD("password") {
+        @Override
+        public Object get(User user) {
+            return user.getPassword();
+        }
+
+        @Override
+        public void set(User user, Object value) {
+            user.setPassword((String) value);
+        }
+    },
+    EMAIL("email") {
+        @Override
+        public Object get(User user) {
+            return user.getEmail();
+        }
+
+        @Override
+        public void set(User user, Object value) {
+            user.setEmail((String) value);
+        }
+    },
+    VERSION("version") {
+        @Override
+        public Object get(User user) {
+            return user.getVersion();
+        }
+
+        @Override
+        public void set(User user, Object value) {
+            user.setVersion((Long) value);
+        }
+    };
+
+    // The password is only written when asked for by name.
+    public static final Set<UserField> DEFAULT = Collections.unmodifiableSet(EnumSet.of(ID, USERNAME, EMAIL, VERSION));
+
+    private final String property;
+    private final SerializedString serializedName;
+
+    UserField(String property) {
+        this.property = property;
+        this.serializedName = new SerializedString(property);
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public abstract Object get(User user);
+
+    public abstract void set(User user, Object value);
+
+    // Mirrors the entity's Jackson mapping: a missing version is left out, other nulls are written.
+    public void write(JsonGenerator generator, User user) throws IOException {
+        Object value = get(user);
+        if (value == null && this == VERSION) {
+            return;
+        }
+
+        generator.writeFieldName(serializedName);
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof Long number) {
+            generator.writeNumber(number);
+        } else {
+            generator.writeString((String) value);
+        }
+    }
+
+    // The id is always selected because it is the paging cursor and what every other endpoint is addressed by.
+    public static Set<UserField> parse(List<String> names) {
+        if (names == null || names.isEmpty()) {
+            return DEFAULT;
+        }
+
+        Set<UserField> fields = EnumSet.of(ID);
+        for (String name : names) {
+            fields.add(Arrays.stream(values())
+                    .filter(field -> field.property.equalsIgnoreCase(name.trim()))
+                    .findFirst()
+                    .orElseThrow(() -> new InvalidFieldsException("Unknown field '" + name.trim() + "', expected any of id, username, password, email, version")));
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,21 @@
+package com.mindera.users.dto;
+
+import lombok.*;
+
+@NoArgsConstructor
+@Data
+@AllArgsConstructor
+@Builder
+public class UserImportResult {
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID
+    }
+
+    private int index;
+    private Status status;
+    private Long id;
+    private String message;
+
+}
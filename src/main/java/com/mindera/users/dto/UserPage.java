@@ -0,0 +1,33 @@
+package com.mindera.users.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.mindera.users.entity.User;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+// Users written as a JSON array holding only the selected fields, without a wrapper per row.
+@JsonSerialize(using = UserPage.Serializer.class)
+public record UserPage(List<User> users, Set<UserField> fields) {
+
+    public static class Serializer extends StdSerializer<UserPage> {
+
+        public Serializer() {
+            super(UserPage.class);
+        }
+
+        @Override
+        public void serialize(UserPage page, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            UserField[] fields = page.fields().toArray(UserField[]::new);
+            generator.writeStartArray(page, page.users().size());
+            for (User user : page.users()) {
+                UserSerializer.write(generator, user, fields);
+            }
+            generator.writeEndArray();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.mindera.users.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.mindera.users.entity.User;
+
+import java.io.IOException;
+import java.util.Set;
+
+@JsonSerialize(using = UserProjection.Serializer.class)
+public record UserProjection(User user, Set<UserField> fields) {
+
+    public static class Serializer extends StdSerializer<UserProjection> {
+
+        public Serializer() {
+            super(UserProjection.class);
+        }
+
+        @Override
+        public void serialize(UserProjection projection, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            UserSerializer.write(generator, projection.user(), projection.fields().toArray(UserField[]::new));
+        }
+    }
+}
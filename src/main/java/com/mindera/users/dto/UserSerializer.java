@@ -0,0 +1,33 @@
+package com.mindera.users.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.mindera.users.entity.User;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+// Replaces the reflective bean serializer: field names are pre-encoded and nothing is allocated per user.
+// Responses, search results and exports all go through here, so they never carry the password.
+@JsonComponent
+public class UserSerializer extends StdSerializer<User> {
+    private static final UserField[] FIELDS = UserField.DEFAULT.toArray(UserField[]::new);
+
+    public UserSerializer() {
+        super(User.class);
+    }
+
+    @Override
+    public void serialize(User user, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        write(generator, user, FIELDS);
+    }
+
+    static void write(JsonGenerator generator, User user, UserField[] fields) throws IOException {
+        generator.writeStartObject(user);
+        for (UserField field : fields) {
+            field.write(generator, user);
+        }
+        generator.writeEndObject();
+    }
+}
@@ -1,6 +1,7 @@
 package com.mindera.users.entity;
 
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -9,14 +10,21 @@ import lombok.*;
 @Entity
 @Table(name = "users")
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class User {
+    public static final String ID_SEQUENCE = "users_id_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     private String username;
     private String password;
     private String email;
 
+    @Version
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long version;
 }
@@ -0,0 +1,11 @@
+package com.mindera.users.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class InvalidDeleteRequestException extends RuntimeException {
+    public InvalidDeleteRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.mindera.users.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.PRECONDITION_FAILED)
+public class UserPreconditionFailedException extends RuntimeException {
+    public UserPreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,52 @@
+package com.mindera.users.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Locale;
+
+public class RabbitUserChangePublisher implements UserChangePublisher {
+    private static final String ROUTING_KEY_PREFIX = "user.";
+
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper objectMapper;
+    private final String exchange;
+    private final long confirmTimeoutMillis;
+
+    public RabbitUserChangePublisher(RabbitTemplate rabbitTemplate, ObjectMapper objectMapper, String exchange, long confirmTimeoutMillis) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.objectMapper = objectMapper;
+        this.exchange = exchange;
+        this.confirmTimeoutMillis = confirmTimeoutMillis;
+    }
+
+    // One channel for the whole batch keeps the events in order; the batch only counts once the broker has confirmed all of it.
+    @Override
+    public void publish(List<UserChangeEvent> events) {
+        rabbitTemplate.invoke(operations -> {
+            for (UserChangeEvent event : events) {
+                operations.send(exchange, ROUTING_KEY_PREFIX + event.type().name().toLowerCase(Locale.ROOT), toMessage(event));
+            }
+            operations.waitForConfirmsOrDie(confirmTimeoutMillis);
+            return null;
+        });
+    }
+
+    // Delivery is at least once, so the outbox sequence goes out as the message id for consumers to deduplicate on.
+    private Message toMessage(UserChangeEvent event) {
+        try {
+            return MessageBuilder.withBody(objectMapper.writeValueAsBytes(event))
+                    .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                    .setMessageId(String.valueOf(event.sequence()))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
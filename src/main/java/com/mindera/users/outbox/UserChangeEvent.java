@@ -0,0 +1,9 @@
+package com.mindera.users.outbox;
+
+// The password never leaves the users table; consumers get the identity fields and the version the change produced.
+public record UserChangeEvent(long sequence, Type type, Long userId, String username, String email, Long version) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
@@ -0,0 +1,11 @@
+package com.mindera.users.outbox;
+
+import java.util.List;
+
+public interface UserChangePublisher {
+    UserChangePublisher NONE = events -> {
+    };
+
+    // Must either deliver the whole batch in order or throw, in which case the batch is relayed again.
+    void publish(List<UserChangeEvent> events);
+}
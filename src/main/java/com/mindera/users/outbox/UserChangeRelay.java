@@ -0,0 +1,131 @@
+package com.mindera.users.outbox;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Change records are written by the users_outbox_changed trigger, in the transaction of whatever statement changed the row,
+// so requests never wait on the broker. This relay moves them to the publisher in id order, one batch per transaction.
+@Component
+public class UserChangeRelay implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(UserChangeRelay.class);
+    private static final long RELAY_LOCK = 0x7573657273L;
+    private static final String SELECT_SQL = "SELECT id, type, user_id, username, email, version FROM users_outbox ORDER BY id LIMIT ?";
+    private static final RowMapper<UserChangeEvent> EVENT_MAPPER = (rs, rowNum) -> new UserChangeEvent(
+            rs.getLong("id"),
+            UserChangeEvent.Type.valueOf(rs.getString("type")),
+            rs.getLong("user_id"),
+            rs.getString("username"),
+            rs.getString("email"),
+            rs.getObject("version", Long.class));
+
+    private final int batchSize;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserChangePublisher publisher;
+    private final LongAdder published = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final ScheduledExecutorService relayer;
+    private Timer relayTimer;
+
+    @Autowired
+    public UserChangeRelay(@Value("${myapp.outbox.enabled:true}") boolean enabled,
+                           @Value("${myapp.outbox.batch-size:500}") int batchSize,
+                           @Value("${myapp.outbox.poll-interval-millis:100}") long pollIntervalMillis,
+                           JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           UserChangePublisher publisher) {
+        this.batchSize = batchSize;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.publisher = publisher;
+        if (enabled) {
+            relayer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "user-change-relay");
+                thread.setDaemon(true);
+                return thread;
+            });
+            relayer.scheduleWithFixedDelay(this::drain, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            relayer = null;
+        }
+    }
+
+    // Returns how many changes were published; a publisher failure rolls the batch back so it is retried as a whole.
+    public int relay() {
+        long start = System.nanoTime();
+        Integer relayed = transactionTemplate.execute(status -> {
+            // Only one instance relays at a time, otherwise two batches could publish changes to the same user out of order.
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, RELAY_LOCK))) {
+                return 0;
+            }
+
+            List<UserChangeEvent> events = jdbcTemplate.query(SELECT_SQL, EVENT_MAPPER, batchSize);
+            if (events.isEmpty()) {
+                return 0;
+            }
+
+            publisher.publish(events);
+            // Deleted by id rather than by range: a transaction still in flight may commit a lower id after this batch was read.
+            Long[] ids = events.stream().map(UserChangeEvent::sequence).toArray(Long[]::new);
+            jdbcTemplate.update("DELETE FROM users_outbox WHERE id = ANY(?)",
+                    statement -> statement.setArray(1, statement.getConnection().createArrayOf("bigint", ids)));
+            return events.size();
+        });
+        if (relayTimer != null && relayed != null && relayed > 0) {
+            relayTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        published.add(relayed == null ? 0 : relayed);
+        return relayed == null ? 0 : relayed;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (relayer != null) {
+            relayer.shutdown();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        relayTimer = Timer.builder("users.outbox.relay")
+                .description("Time to publish and remove one batch of user change records")
+                .publishPercentileHistogram()
+                .register(registry);
+        FunctionCounter.builder("users.outbox.published", published, LongAdder::sum)
+                .description("User change records published")
+                .register(registry);
+        FunctionCounter.builder("users.outbox.failures", failures, LongAdder::sum)
+                .description("Relay attempts that failed and left their batch in the outbox")
+                .register(registry);
+    }
+
+    private void drain() {
+        try {
+            // A full batch means more is likely waiting, so keep relaying without waiting for the next poll.
+            while (relay() == batchSize) {
+            }
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Could not relay user changes, they will be retried", e);
+        }
+    }
+}
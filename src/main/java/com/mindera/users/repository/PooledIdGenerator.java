@@ -0,0 +1,56 @@
+package com.mindera.users.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands out ids the way Hibernate's pooled optimizer does for {@code users_id_seq}: each {@code nextval} returns the
+ * top of a block of {@code allocationSize} ids, so the servlet and reactive stacks can share the sequence without
+ * overlapping and without burning a block per row.
+ */
+class PooledIdGenerator {
+    private final DatabaseClient databaseClient;
+    private final String sequence;
+    private final int allocationSize;
+    private final AtomicReference<Block> block = new AtomicReference<>(new Block(1, 0));
+
+    PooledIdGenerator(DatabaseClient databaseClient, String sequence, int allocationSize) {
+        this.databaseClient = databaseClient;
+        this.sequence = sequence;
+        this.allocationSize = allocationSize;
+    }
+
+    Mono<Long> next() {
+        return Mono.defer(() -> {
+            Block current = block.get();
+            long id = current.next.getAndIncrement();
+            if (id <= current.hi) {
+                return Mono.just(id);
+            }
+            return databaseClient.sql("SELECT nextval('" + sequence + "')")
+                    .map(row -> row.get(0, Long.class))
+                    .one()
+                    .map(hi -> {
+                        // A freshly started sequence returns 1, which is the only block that starts below hi - size + 1.
+                        Block fetched = new Block(Math.max(1, hi - allocationSize + 1), hi);
+                        long first = fetched.next.getAndIncrement();
+                        // When two callers refill at once the loser keeps its first id and leaves the rest of its block unused.
+                        block.compareAndSet(current, fetched);
+                        return first;
+                    });
+        });
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long hi;
+
+        private Block(long lo, long hi) {
+            this.next = new AtomicLong(lo);
+            this.hi = hi;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.mindera.users.repository;
+
+import com.mindera.users.entity.User;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@Profile("reactive")
+public class ReactiveUserRepository {
+    private static final String COLUMNS = "id, username, password, email, version";
+    private static final String VERSION_MATCHES = "(CAST(:version AS BIGINT) IS NULL OR version = CAST(:version AS BIGINT))";
+    private static final int FETCH_SIZE = 1000;
+
+    private final DatabaseClient databaseClient;
+    private final PooledIdGenerator idGenerator;
+
+    @Autowired
+    public ReactiveUserRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+        this.idGenerator = new PooledIdGenerator(databaseClient, User.ID_SEQUENCE, User.ID_ALLOCATION_SIZE);
+    }
+
+    public Mono<User> findById(Long id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM users WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveUserRepository::toUser)
+                .one();
+    }
+
+    public Mono<Long> findPageEnd(long after, int limit) {
+        return databaseClient.sql("SELECT id FROM users WHERE id > :after ORDER BY id LIMIT 1 OFFSET :offset")
+                .bind("after", after)
+                .bind("offset", limit - 1)
+                .map(row -> row.get("id", Long.class))
+                .one();
+    }
+
+    public Flux<User> findPage(long after, long until, int limit) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM users WHERE id > :after AND id <= :until ORDER BY id LIMIT :limit")
+                .bind("after", after)
+                .bind("until", until)
+                .bind("limit", limit)
+                .filter(statement -> statement.fetchSize(Math.min(limit, FETCH_SIZE)))
+                .map(ReactiveUserRepository::toUser)
+                .all();
+    }
+
+    public Flux<User> search(String term, String prefix, int offset, int limit) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM users " +
+                        "WHERE lower(username) LIKE :prefix OR lower(email) LIKE :prefix OR lower(username) % :term OR lower(email) % :term " +
+                        "ORDER BY (lower(username) LIKE :prefix OR lower(email) LIKE :prefix) DESC, " +
+                        "greatest(similarity(lower(username), :term), similarity(lower(email), :term)) DESC, id " +
+                        "LIMIT :limit OFFSET :offset")
+                .bind("term", term)
+                .bind("prefix", prefix)
+                .bind("offset", offset)
+                .bind("limit", limit)
+                .map(ReactiveUserRepository::toUser)
+                .all();
+    }
+
+    public Flux<User> findAll() {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM users ORDER BY id")
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(ReactiveUserRepository::toUser)
+                .all();
+    }
+
+    public Mono<User> insert(User user) {
+        return idGenerator.next().flatMap(id -> databaseClient.sql("INSERT INTO users (id, username, password, email) " +
+                        "VALUES (:id, :username, :password, :email) RETURNING " + COLUMNS)
+                .bind("id", id)
+                .bind("username", user.getUsername())
+                .bind("password", user.getPassword())
+                .bind("email", user.getEmail())
+                .map(ReactiveUserRepository::toUser)
+                .one());
+    }
+
+    public Flux<User> insertAllIgnoringExistingEmails(List<User> users) {
+        return Flux.fromIterable(users)
+                .concatMap(user -> idGenerator.next())
+                .collectList()
+                .flatMapMany(ids -> databaseClient.sql("INSERT INTO users (id, username, password, email) " +
+                                "SELECT * FROM unnest(CAST(:ids AS bigint[]), CAST(:usernames AS varchar[]), CAST(:passwords AS varchar[]), CAST(:emails AS varchar[])) " +
+                                "ON CONFLICT (lower(email)) DO NOTHING RETURNING " + COLUMNS)
+                        .bind("ids", ids.toArray(Long[]::new))
+                        .bind("usernames", users.stream().map(User::getUsername).toArray(String[]::new))
+                        .bind("passwords", users.stream().map(User::getPassword).toArray(String[]::new))
+                        .bind("emails", users.stream().map(User::getEmail).toArray(String[]::new))
+                        .map(ReactiveUserRepository::toUser)
+                        .all());
+    }
+
+    public Mono<User> patch(Long id, String email, Long version, String username, String password) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("UPDATE users SET username = COALESCE(:username, username), password = COALESCE(:password, password), " +
+                        "version = version + 1 WHERE id = :id AND email = :email AND " + VERSION_MATCHES + " RETURNING " + COLUMNS)
+                .bind("id", id);
+        spec = bindNullable(spec, "email", email);
+        spec = version == null ? spec.bindNull("version", Long.class) : spec.bind("version", version);
+        spec = bindNullable(spec, "username", username);
+        spec = bindNullable(spec, "password", password);
+        return spec.map(ReactiveUserRepository::toUser).one();
+    }
+
+    public Mono<User> replace(Long id, String email, Long version, String username, String password) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("UPDATE users SET username = :username, password = :password, version = version + 1 " +
+                        "WHERE id = :id AND email = :email AND " + VERSION_MATCHES + " RETURNING " + COLUMNS)
+                .bind("id", id);
+        spec = bindNullable(spec, "email", email);
+        spec = version == null ? spec.bindNull("version", Long.class) : spec.bind("version", version);
+        spec = bindNullable(spec, "username", username);
+        spec = bindNullable(spec, "password", password);
+        return spec.map(ReactiveUserRepository::toUser).one();
+    }
+
+    public Mono<String> deleteById(Long id) {
+        return databaseClient.sql("DELETE FROM users WHERE id = :id RETURNING email")
+                .bind("id", id)
+                .map(row -> row.get("email", String.class))
+                .one();
+    }
+
+    public Flux<String> deleteAllById(Collection<Long> ids) {
+        return databaseClient.sql("DELETE FROM users WHERE id IN (:ids) RETURNING email")
+                .bind("ids", ids)
+                .map(row -> row.get("email", String.class))
+                .all();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec, String name, String value) {
+        return value == null ? spec.bindNull(name, String.class) : spec.bind(name, value);
+    }
+
+    private static User toUser(Readable row) {
+        return User.builder()
+                .id(row.get("id", Long.class))
+                .username(row.get("username", String.class))
+                .password(row.get("password", String.class))
+                .email(row.get("email", String.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+}
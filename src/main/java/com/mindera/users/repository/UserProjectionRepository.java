@@ -0,0 +1,13 @@
+package com.mindera.users.repository;
+
+import com.mindera.users.dto.UserField;
+
+import com.mindera.users.entity.User;
+
+import java.util.List;
+import java.util.Set;
+
+public interface UserProjectionRepository {
+    // Returned users are detached and only carry the requested fields.
+    List<User> findPage(Set<UserField> fields, long after, int limit);
+}
@@ -0,0 +1,55 @@
+package com.mindera.users.repository;
+
+import com.mindera.users.dto.UserField;
+import com.mindera.users.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// Selects only the requested columns as tuples, so nothing is hydrated into the persistence context.
+public class UserProjectionRepositoryImpl implements UserProjectionRepository {
+
+    private final EntityManager entityManager;
+
+    @Autowired
+    public UserProjectionRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findPage(Set<UserField> fields, long after, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<User> user = query.from(User.class);
+
+        UserField[] selected = fields.toArray(UserField[]::new);
+        List<Selection<?>> selections = new ArrayList<>(selected.length);
+        for (UserField field : selected) {
+            selections.add(user.get(field.getProperty()));
+        }
+        query.multiselect(selections)
+                .where(builder.greaterThan(user.get("id"), after))
+                .orderBy(builder.asc(user.get("id")));
+
+        List<Tuple> tuples = entityManager.createQuery(query).setMaxResults(limit).getResultList();
+        List<User> users = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            User row = new User();
+            for (int i = 0; i < selected.length; i++) {
+                selected[i].set(row, tuple.get(i));
+            }
+            users.add(row);
+        }
+        return users;
+    }
+}
@@ -1,13 +1,81 @@
 package com.mindera.users.repository;
 
 import com.mindera.users.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserProjectionRepository {
     Optional<User> findByEmail(String email);
-}
 
+    @Query("select lower(u.email) from User u where lower(u.email) in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select u from User u order by u.id")
+    Stream<User> streamAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+    @Query("select lower(u.email) from User u")
+    Stream<String> streamAllEmails();
+
+    // Prefix hits rank first, then trigram similarity; both predicates are served by the gin_trgm_ops indexes.
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT * FROM users " +
+            "WHERE lower(username) LIKE :prefix OR lower(email) LIKE :prefix OR lower(username) % :term OR lower(email) % :term " +
+            "ORDER BY (lower(username) LIKE :prefix OR lower(email) LIKE :prefix) DESC, " +
+            "greatest(similarity(lower(username), :term), similarity(lower(email), :term)) DESC, id " +
+            "LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<User> search(@Param("term") String term, @Param("prefix") String prefix, @Param("offset") int offset, @Param("limit") int limit);
+
+    @Transactional(readOnly = true)
+    @Query("select u.version from User u where u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT CAST(COALESCE(sum(changes), 0) AS BIGINT) FROM users_changes", nativeQuery = true)
+    long changeToken();
+
+    @Transactional
+    @Query(value = "UPDATE users SET username = COALESCE(CAST(:username AS VARCHAR), username), " +
+            "password = COALESCE(CAST(:password AS VARCHAR), password), version = version + 1 " +
+            "WHERE id = :id AND email = :email AND (CAST(:version AS BIGINT) IS NULL OR version = CAST(:version AS BIGINT)) " +
+            "RETURNING *", nativeQuery = true)
+    Optional<User> patch(@Param("id") Long id, @Param("email") String email, @Param("version") Long version,
+                         @Param("username") String username, @Param("password") String password);
+
+    @Transactional
+    @Query(value = "UPDATE users SET username = CAST(:username AS VARCHAR), password = CAST(:password AS VARCHAR), version = version + 1 " +
+            "WHERE id = :id AND email = :email AND (CAST(:version AS BIGINT) IS NULL OR version = CAST(:version AS BIGINT)) " +
+            "RETURNING *", nativeQuery = true)
+    Optional<User> replace(@Param("id") Long id, @Param("email") String email, @Param("version") Long version,
+                           @Param("username") String username, @Param("password") String password);
+
+    // Deleted straight away instead of loading the entities first; the result is the number of rows removed.
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM users WHERE id = :id", nativeQuery = true)
+    int deleteRowById(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM users WHERE id IN (:ids)", nativeQuery = true)
+    int deleteRowsById(@Param("ids") Collection<Long> ids);
+}
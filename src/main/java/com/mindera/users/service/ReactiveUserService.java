@@ -0,0 +1,190 @@
+package com.mindera.users.service;
+
+import com.mindera.users.cache.UserCache;
+import com.mindera.users.dto.UserDeleteResult;
+import com.mindera.users.dto.UserImportResult;
+import com.mindera.users.entity.User;
+import com.mindera.users.exceptions.*;
+import com.mindera.users.repository.ReactiveUserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
+
+import java.util.*;
+
+@Service
+@Profile("reactive")
+public class ReactiveUserService {
+
+    private final ReactiveUserRepository userRepository;
+    private final UserCache userCache;
+
+    @Autowired
+    public ReactiveUserService(ReactiveUserRepository userRepository, UserCache userCache) {
+        this.userRepository = userRepository;
+        this.userCache = userCache;
+    }
+
+    public Mono<Long> getPageEnd(Long after, int limit) {
+        if (limit < 1 || limit > UserService.MAX_PAGE_SIZE) {
+            return Mono.error(new InvalidPageRequestException("Limit must be between 1 and " + UserService.MAX_PAGE_SIZE));
+        }
+
+        return userRepository.findPageEnd(after == null ? 0L : after, limit);
+    }
+
+    public Flux<User> getUsers(Long after, Long until, int limit) {
+        return userRepository.findPage(after == null ? 0L : after, until == null ? Long.MAX_VALUE : until, limit);
+    }
+
+    public Flux<User> searchUsers(String query, int offset, int limit) {
+        String term = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (term.length() < UserService.MIN_SEARCH_LENGTH) {
+            return Flux.error(new InvalidSearchRequestException("Search query must have at least " + UserService.MIN_SEARCH_LENGTH + " characters"));
+        }
+        if (limit < 1 || limit > UserService.MAX_SEARCH_SIZE || offset < 0 || offset > UserService.MAX_SEARCH_OFFSET) {
+            return Flux.error(new InvalidPageRequestException("Limit must be between 1 and " + UserService.MAX_SEARCH_SIZE
+                    + " and offset between 0 and " + UserService.MAX_SEARCH_OFFSET));
+        }
+
+        return userRepository.search(term, UserService.likePrefix(term), offset, limit);
+    }
+
+    public Flux<User> exportUsers() {
+        return userRepository.findAll();
+    }
+
+    public Mono<User> addUser(User user) {
+        if (user == null) {
+            return Mono.error(new UserCannotBeNullException("User cannot be null"));
+        }
+
+        if (UserService.hasBlankProperties(user)) {
+            return Mono.error(new UserPropertiesNullEmptyOrBlankException("User ID, username, password and email cannot be null, empty or blank!"));
+        }
+
+        return userRepository.insert(user)
+                .onErrorMap(e -> e instanceof DataIntegrityViolationException && UserService.isEmailConflict(e),
+                        e -> new UserAlreadyExistsException("User with the same email already exists"))
+                .flatMap(savedUser -> evict(savedUser.getId()).thenReturn(savedUser));
+    }
+
+    public Flux<UserImportResult> importUsers(Flux<User> users) {
+        return users.index()
+                .buffer(UserImportService.CHUNK_SIZE)
+                .concatMap(this::importChunk);
+    }
+
+    public Mono<User> getUserById(Long userId) {
+        return userRepository.findById(userId)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException("User Id not found!")));
+    }
+
+    public Mono<Void> deleteUserById(Long userId) {
+        return userRepository.deleteById(userId)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException("User not found!")))
+                .flatMap(email -> evict(userId));
+    }
+
+    public Mono<UserDeleteResult> deleteUsersById(List<Long> userIds) {
+        if (userIds == null || userIds.isEmpty() || userIds.size() > UserService.MAX_DELETE_SIZE) {
+            return Mono.error(new InvalidDeleteRequestException("Between 1 and " + UserService.MAX_DELETE_SIZE + " ids must be given"));
+        }
+
+        List<Long> distinctIds = List.copyOf(new LinkedHashSet<>(userIds));
+        return userRepository.deleteAllById(distinctIds)
+                .count()
+                .flatMap(deleted -> evict(distinctIds).thenReturn(new UserDeleteResult(distinctIds.size(), deleted.intValue())));
+    }
+
+    public Mono<User> patchUser(Long userId, User updatedUser) {
+        if (!userId.equals(updatedUser.getId())) {
+            return notMatching(userId, "User id not matching body request");
+        }
+
+        return userRepository.patch(userId, updatedUser.getEmail(), updatedUser.getVersion(), nonBlank(updatedUser.getUsername()), nonBlank(updatedUser.getPassword()))
+                .switchIfEmpty(Mono.defer(() -> updateRejected(userId, updatedUser)))
+                .flatMap(user -> evict(userId).thenReturn(user));
+    }
+
+    public Mono<User> putUser(Long userId, User user) {
+        if (!userId.equals(user.getId())) {
+            return notMatching(userId, "UserId and request body id do not match");
+        }
+
+        return userRepository.replace(userId, user.getEmail(), user.getVersion(), user.getUsername(), user.getPassword())
+                .switchIfEmpty(Mono.defer(() -> updateRejected(userId, user)))
+                .flatMap(updatedUser -> evict(userId).thenReturn(updatedUser));
+    }
+
+    private Mono<User> notMatching(Long userId, String message) {
+        return userRepository.findById(userId)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException("User not found!")))
+                .then(Mono.error(new NotMatchingException(message)));
+    }
+
+    private Mono<User> updateRejected(Long userId, User request) {
+        return userRepository.findById(userId)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException("User not found!")))
+                .flatMap(current -> Mono.error(!current.getEmail().equals(request.getEmail())
+                        ? new UserCannotChangeException("User email cannot be updated!")
+                        : new UserVersionConflictException("User was modified concurrently, current version is " + current.getVersion())));
+    }
+
+    private Flux<UserImportResult> importChunk(List<Tuple2<Long, User>> chunk) {
+        int offset = chunk.get(0).getT1().intValue();
+        UserImportResult[] results = new UserImportResult[chunk.size()];
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+
+        for (int i = 0; i < chunk.size(); i++) {
+            User user = chunk.get(i).getT2();
+            if (UserService.hasBlankProperties(user)) {
+                results[i] = UserImportService.result(offset + i, UserImportResult.Status.INVALID, null, "Username, password and email cannot be null, empty or blank!");
+            } else if (candidates.putIfAbsent(user.getEmail().toLowerCase(Locale.ROOT), i) != null) {
+                results[i] = UserImportService.result(offset + i, UserImportResult.Status.DUPLICATE, null, "Email appears more than once in the request");
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            return Flux.fromArray(results);
+        }
+
+        List<User> newUsers = candidates.values().stream().map(i -> chunk.get(i).getT2()).toList();
+        return userRepository.insertAllIgnoringExistingEmails(newUsers)
+                .doOnNext(user -> {
+                    int i = candidates.get(user.getEmail().toLowerCase(Locale.ROOT));
+                    results[i] = UserImportService.result(offset + i, UserImportResult.Status.CREATED, user.getId(), null);
+                })
+                .map(User::getId)
+                .collectList()
+                .flatMap(this::evict)
+                .thenMany(Flux.defer(() -> {
+                    for (int i : candidates.values()) {
+                        if (results[i] == null) {
+                            results[i] = UserImportService.result(offset + i, UserImportResult.Status.DUPLICATE, null, "User with the same email already exists");
+                        }
+                    }
+                    return Flux.fromArray(results);
+                }));
+    }
+
+    // Nothing on this stack reads the cache, but the shared tier and its invalidations are visible to servlet instances.
+    private Mono<Void> evict(Long userId) {
+        return evict(List.of(userId));
+    }
+
+    private Mono<Void> evict(List<Long> userIds) {
+        return Mono.fromRunnable(() -> userIds.forEach(userCache::evict))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    private static String nonBlank(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
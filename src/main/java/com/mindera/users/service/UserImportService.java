@@ -0,0 +1,136 @@
+package com.mindera.users.service;
+
+import com.mindera.users.cache.EmailBloomFilter;
+import com.mindera.users.cache.UserCache;
+import com.mindera.users.dto.UserImportResult;
+import com.mindera.users.entity.User;
+import com.mindera.users.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+@Service
+@Timed(value = "users.service", histogram = true)
+public class UserImportService {
+    public static final int CHUNK_SIZE = 500;
+
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final UserCache userCache;
+    private final EmailBloomFilter emailBloomFilter;
+
+    @Autowired
+    public UserImportService(UserRepository userRepository, EntityManager entityManager, PlatformTransactionManager transactionManager,
+                             UserCache userCache, EmailBloomFilter emailBloomFilter) {
+        this.userRepository = userRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userCache = userCache;
+        this.emailBloomFilter = emailBloomFilter;
+    }
+
+    public List<UserImportResult> importUsers(Iterator<User> users) {
+        List<UserImportResult> results = new ArrayList<>();
+        List<User> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        while (users.hasNext()) {
+            chunk.add(users.next());
+            if (chunk.size() == CHUNK_SIZE) {
+                results.addAll(importChunk(results.size(), chunk));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(importChunk(results.size(), chunk));
+        }
+
+        return results;
+    }
+
+    private List<UserImportResult> importChunk(int offset, List<User> chunk) {
+        UserImportResult[] results = new UserImportResult[chunk.size()];
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+
+        for (int i = 0; i < chunk.size(); i++) {
+            User user = chunk.get(i);
+            if (user == null || UserService.hasBlankProperties(user)) {
+                results[i] = result(offset + i, UserImportResult.Status.INVALID, null, "Username, password and email cannot be null, empty or blank!");
+            } else if (candidates.putIfAbsent(user.getEmail().toLowerCase(Locale.ROOT), i) != null) {
+                results[i] = result(offset + i, UserImportResult.Status.DUPLICATE, null, "Email appears more than once in the request");
+            }
+        }
+
+        Set<String> possiblyExisting = new HashSet<>();
+        for (String email : candidates.keySet()) {
+            if (emailBloomFilter.mightContain(email)) {
+                possiblyExisting.add(email);
+            }
+        }
+        Set<String> existingEmails = possiblyExisting.isEmpty() ? Set.of() : userRepository.findExistingEmails(possiblyExisting);
+        emailBloomFilter.recordFalsePositives(possiblyExisting.size() - existingEmails.size());
+
+        List<Integer> newIndexes = new ArrayList<>(candidates.size());
+        for (Map.Entry<String, Integer> candidate : candidates.entrySet()) {
+            int i = candidate.getValue();
+            if (existingEmails.contains(candidate.getKey())) {
+                results[i] = result(offset + i, UserImportResult.Status.DUPLICATE, null, "User with the same email already exists");
+            } else {
+                chunk.get(i).setId(null);
+                chunk.get(i).setVersion(null);
+                newIndexes.add(i);
+            }
+        }
+
+        if (newIndexes.isEmpty()) {
+            return Arrays.asList(results);
+        }
+
+        List<User> newUsers = newIndexes.stream().map(chunk::get).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.saveAllAndFlush(newUsers);
+                entityManager.clear();
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (!UserService.isEmailConflict(e)) throw e;
+            // Another writer took one of the emails after the existence check; fall back to row by row.
+            for (int i : newIndexes) {
+                User user = chunk.get(i);
+                user.setId(null);
+                user.setVersion(null);
+                try {
+                    userRepository.save(user);
+                } catch (DataIntegrityViolationException duplicate) {
+                    if (!UserService.isEmailConflict(duplicate)) throw duplicate;
+                    results[i] = result(offset + i, UserImportResult.Status.DUPLICATE, null, "User with the same email already exists");
+                }
+            }
+        }
+
+        for (int i : newIndexes) {
+            if (results[i] == null) {
+                results[i] = result(offset + i, UserImportResult.Status.CREATED, chunk.get(i).getId(), null);
+                userCache.evict(chunk.get(i).getId());
+                emailBloomFilter.add(chunk.get(i).getEmail());
+            }
+        }
+
+        return Arrays.asList(results);
+    }
+
+    static UserImportResult result(int index, UserImportResult.Status status, Long id, String message) {
+        return UserImportResult.builder()
+                .index(index)
+                .status(status)
+                .id(id)
+                .message(message)
+                .build();
+    }
+}
@@ -1,25 +1,93 @@
 package com.mindera.users.service;
 
+import com.mindera.users.cache.EmailBloomFilter;
+import com.mindera.users.cache.UserCache;
+import com.mindera.users.datasource.ReplicaRoutingDataSource;
+import com.mindera.users.dto.UserDeleteResult;
+import com.mindera.users.dto.UserField;
 import com.mindera.users.entity.User;
 import com.mindera.users.exceptions.*;
 import com.mindera.users.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "users.service", histogram = true)
 public class UserService {
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_DELETE_SIZE = 1000;
+    public static final int MIN_SEARCH_LENGTH = 3;
+    public static final int MAX_SEARCH_SIZE = 100;
+    public static final int MAX_SEARCH_OFFSET = 1000;
+    static final String EMAIL_UNIQUE_INDEX = "users_email_lower_key";
+
     private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final UserCache userCache;
+    private final EmailBloomFilter emailBloomFilter;
+    private final UserWriteBehind userWriteBehind;
 
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, EntityManager entityManager, UserCache userCache, EmailBloomFilter emailBloomFilter,
+                       UserWriteBehind userWriteBehind) {
         this.userRepository = userRepository;
+        this.entityManager = entityManager;
+        this.userCache = userCache;
+        this.emailBloomFilter = emailBloomFilter;
+        this.userWriteBehind = userWriteBehind;
+    }
+
+    public List<User> getUsers(Long after, int limit, Set<UserField> fields) {
+        checkPageSize(limit);
+        List<User> users = userRepository.findPage(fields, after == null ? 0L : after, limit);
+        if (userWriteBehind.isEnabled()) {
+            for (User user : users) {
+                userWriteBehind.pending(user.getId()).ifPresent(pendingUser -> fields.forEach(field -> field.set(user, field.get(pendingUser))));
+            }
+        }
+        return users;
     }
 
-    public List<User> getUsers() {
-        return userRepository.findAll();
+    public List<User> searchUsers(String query, int offset, int limit) {
+        String term = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (term.length() < MIN_SEARCH_LENGTH) {
+            throw new InvalidSearchRequestException("Search query must have at least " + MIN_SEARCH_LENGTH + " characters");
+        }
+        if (limit < 1 || limit > MAX_SEARCH_SIZE || offset < 0 || offset > MAX_SEARCH_OFFSET) {
+            throw new InvalidPageRequestException("Limit must be between 1 and " + MAX_SEARCH_SIZE + " and offset between 0 and " + MAX_SEARCH_OFFSET);
+        }
+
+        List<User> users = userRepository.search(term, likePrefix(term), offset, limit);
+        return userWriteBehind.isEnabled() ? users.stream().map(this::withPending).toList() : users;
+    }
+
+    @Transactional(readOnly = true)
+    public void exportUsers(Consumer<User> consumer) {
+        try (Stream<User> users = userRepository.streamAll()) {
+            users.forEach(user -> {
+                consumer.accept(withPending(user));
+                entityManager.detach(user);
+            });
+        }
+    }
+
+    // Matching and ranking still use the stored row; what is returned is the latest accepted state.
+    private User withPending(User user) {
+        return userWriteBehind.pending(user.getId()).orElse(user);
     }
 
     public User addUser(User user) {
@@ -27,23 +95,51 @@ public class UserService {
             throw new UserCannotBeNullException("User cannot be null");
         }
 
-        Optional<User> existingUser = userRepository.findByEmail(user.getEmail());
-        if (existingUser.isPresent()) {
-            throw new UserAlreadyExistsException("User with the same email already exists");
-        }
-
-        if (user.getUsername() == null || user.getUsername().isEmpty() || user.getUsername().isBlank() ||
-                user.getPassword() == null || user.getPassword().isEmpty() || user.getPassword().isBlank() || user.getEmail() == null || user.getEmail().isEmpty() || user.getEmail().isBlank()) {
+        if (hasBlankProperties(user)) {
             throw new UserPropertiesNullEmptyOrBlankException("User ID, username, password and email cannot be null, empty or blank!");
         }
 
-        return userRepository.save(user);
+        user.setId(null);
+        user.setVersion(null);
+        try {
+            User savedUser = userRepository.save(user);
+            userCache.put(savedUser);
+            emailBloomFilter.add(savedUser.getEmail());
+            return savedUser;
+        } catch (DataIntegrityViolationException e) {
+            if (!isEmailConflict(e)) throw e;
+            throw new UserAlreadyExistsException("User with the same email already exists");
+        }
     }
 
 
 
+    // Only the email index means a duplicate user; NOT NULL, length and other constraint failures are real errors.
+    static boolean isEmailConflict(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return EMAIL_UNIQUE_INDEX.equals(violation.getConstraintName());
+            }
+            // Drivers that do not go through Hibernate (R2DBC, JDBC batches) only name the index in the server message.
+            if (cause.getMessage() != null && cause.getMessage().contains("\"" + EMAIL_UNIQUE_INDEX + "\"")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean hasBlankProperties(User user) {
+        return user.getUsername() == null || user.getUsername().isEmpty() || user.getUsername().isBlank() ||
+                user.getPassword() == null || user.getPassword().isEmpty() || user.getPassword().isBlank() || user.getEmail() == null || user.getEmail().isEmpty() || user.getEmail().isBlank();
+    }
+
     public Optional<User> getUserById(Long userId) {
-        Optional<User> userOptional = userRepository.findById(userId);
+        Optional<User> pendingUser = userWriteBehind.pending(userId);
+        if (pendingUser.isPresent()) {
+            return pendingUser;
+        }
+
+        Optional<User> userOptional = userCache.get(userId, id -> ReplicaRoutingDataSource.readFromPrimary(() -> userRepository.findById(id)));
 
         if (userOptional.isEmpty()) {
             throw new UserNotFoundException("User Id not found!");
@@ -51,59 +147,105 @@ public class UserService {
         return userOptional;
     }
 
+    public Optional<Long> getUserVersion(Long userId) {
+        Optional<Long> cachedVersion = userWriteBehind.pending(userId).or(() -> userCache.getIfCached(userId)).map(User::getVersion);
+        return cachedVersion.isPresent() ? cachedVersion : userRepository.findVersionById(userId);
+    }
 
-    public void deleteUserById(Long userId) {
-        Optional<User> userOptional = userRepository.findById(userId);
-        if (userOptional.isEmpty()) throw new UserNotFoundException("User not found!");
-
-        userRepository.deleteById(userId);
+    public long getUsersChangeToken() {
+        return userRepository.changeToken();
     }
 
-    public User patchUser(Long userId, User updatedUser) {
-        Optional<User> existingUserOptional = userRepository.findById(userId);
+    // Pages show pending patches that the database's change token does not count yet.
+    public long getUsersPendingUpdates() {
+        return userWriteBehind.acceptedUpdates();
+    }
 
-        if (existingUserOptional.isEmpty()) {
+    public void deleteUserById(Long userId) {
+        if (userRepository.deleteRowById(userId) == 0) {
             throw new UserNotFoundException("User not found!");
         }
 
-        User userToUpdate = existingUserOptional.get();
+        userWriteBehind.discard(List.of(userId));
+        userCache.evict(userId);
+    }
 
-        if (!userToUpdate.getId().equals(updatedUser.getId())) throw new NotMatchingException("User id not matching body request");
+    // Ids that no longer exist are skipped rather than rejected, so an interrupted cleanup can simply be replayed.
+    public UserDeleteResult deleteUsersById(List<Long> userIds) {
+        if (userIds == null || userIds.isEmpty() || userIds.size() > MAX_DELETE_SIZE) {
+            throw new InvalidDeleteRequestException("Between 1 and " + MAX_DELETE_SIZE + " ids must be given");
+        }
 
-        if(!userToUpdate.getEmail().equals(updatedUser.getEmail())) throw new UserCannotChangeException("User email cannot be updated!");
+        Set<Long> distinctIds = new LinkedHashSet<>(userIds);
+        int deleted = userRepository.deleteRowsById(distinctIds);
 
+        userWriteBehind.discard(distinctIds);
+        distinctIds.forEach(userCache::evict);
 
-        if (updatedUser.getUsername() != null && !updatedUser.getUsername().isEmpty() && !updatedUser.getUsername().isBlank()) {
-            userToUpdate.setUsername(updatedUser.getUsername());
-        }
+        return new UserDeleteResult(distinctIds.size(), deleted);
+    }
 
-        if (updatedUser.getPassword() != null && !updatedUser.getPassword().isEmpty() && !updatedUser.getPassword().isBlank()) {
-            userToUpdate.setPassword(updatedUser.getPassword());
-        }
+    public User patchUser(Long userId, User updatedUser) {
+        if (!Objects.equals(userId, updatedUser.getId())) throw notMatching(userId, "User id not matching body request");
 
-        if (updatedUser.getEmail() != null && !updatedUser.getEmail().isEmpty() && !updatedUser.getEmail().isBlank()) {
-            userToUpdate.setEmail(updatedUser.getEmail());
+        if (userWriteBehind.isEnabled()) {
+            return userWriteBehind.patch(userId, () -> getUserById(userId).get(), current -> merge(current, updatedUser));
         }
 
-        userRepository.save(userToUpdate);
+        User patchedUser = userRepository.patch(userId, updatedUser.getEmail(), updatedUser.getVersion(),
+                        nonBlank(updatedUser.getUsername()), nonBlank(updatedUser.getPassword()))
+                .orElseThrow(() -> updateRejected(userId, updatedUser));
+        userCache.put(patchedUser);
 
-        return userToUpdate;
+        return patchedUser;
     }
 
+    public User putUser(Long userId, User user) {
+        if (!Objects.equals(userId, user.getId())) throw notMatching(userId, "UserId and request body id do not match");
+
+        return userWriteBehind.writeThrough(userId, () -> {
+            User updatedUser = userRepository.replace(userId, user.getEmail(), user.getVersion(), user.getUsername(), user.getPassword())
+                    .orElseThrow(() -> updateRejected(userId, user));
+            userCache.put(updatedUser);
+            return updatedUser;
+        });
+    }
 
+    private RuntimeException notMatching(Long userId, String message) {
+        if (!userRepository.existsById(userId)) return new UserNotFoundException("User not found!");
+        return new NotMatchingException(message);
+    }
 
-    public User putUser(Long userId, User user) {
-        Optional<User> updatedUserOptional = userRepository.findById(userId);
-        if(updatedUserOptional.isEmpty()) throw new UserNotFoundException("User not found!");
-
-        User updatedUser = updatedUserOptional.get();
-        if(!updatedUser.getId().equals(user.getId())) throw new NotMatchingException("UserId and request body id do not match");
-        if(!updatedUser.getEmail().equals(user.getEmail())) throw new UserCannotChangeException("User email cannot be updated!");
-        updatedUser.setUsername(user.getUsername());
-        updatedUser.setPassword(user.getPassword());
-        updatedUser.setEmail(user.getEmail());
-        userRepository.save(updatedUser);
-
-        return updatedUser;
+    // Only reached when the conditional update matched no row, so the extra read stays off the happy path.
+    private RuntimeException updateRejected(Long userId, User request) {
+        Optional<User> existingUser = userRepository.findById(userId);
+        if (existingUser.isEmpty()) return new UserNotFoundException("User not found!");
+        if (!existingUser.get().getEmail().equals(request.getEmail())) return new UserCannotChangeException("User email cannot be updated!");
+        return new UserVersionConflictException("User was modified concurrently, current version is " + existingUser.get().getVersion());
+    }
+
+    private static User merge(User current, User patch) {
+        if (!current.getEmail().equals(patch.getEmail())) throw new UserCannotChangeException("User email cannot be updated!");
+        if (patch.getVersion() != null && !patch.getVersion().equals(current.getVersion())) {
+            throw new UserVersionConflictException("User was modified concurrently, current version is " + current.getVersion());
+        }
+
+        if (nonBlank(patch.getUsername()) != null) current.setUsername(patch.getUsername());
+        if (nonBlank(patch.getPassword()) != null) current.setPassword(patch.getPassword());
+        return current;
+    }
+
+    private static void checkPageSize(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidPageRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    static String likePrefix(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    private static String nonBlank(String value) {
+        return value == null || value.isBlank() ? null : value;
     }
 }
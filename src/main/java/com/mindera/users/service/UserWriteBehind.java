@@ -0,0 +1,261 @@
+package com.mindera.users.service;
+
+import com.mindera.users.cache.UserCache;
+import com.mindera.users.entity.User;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+// Patches to the same user coalesce into one pending row image, written by a single flusher thread in batched transactions.
+// Each accepted patch is journaled in users_pending_updates before the caller gets its answer, so a crash loses nothing:
+// the next start applies what is left. The patch assigns the new version; the flush writes exactly that version.
+@Component
+public class UserWriteBehind implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(UserWriteBehind.class);
+    private static final int LOCK_STRIPES = 64;
+    private static final String JOURNAL_SQL = "INSERT INTO users_pending_updates (user_id, username, password, email, version) VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (user_id) DO UPDATE SET username = EXCLUDED.username, password = EXCLUDED.password, version = EXCLUDED.version " +
+            "WHERE users_pending_updates.version < EXCLUDED.version";
+    private static final String UPDATE_SQL = "UPDATE users SET username = ?, password = ?, version = ? WHERE id = ? AND email = ? AND version < ?";
+    private static final String COMPLETE_SQL = "DELETE FROM users_pending_updates WHERE user_id = ? AND version = ?";
+    private static final String DISCARD_SQL = "DELETE FROM users_pending_updates WHERE user_id = ?";
+    private static final String RECOVER_SQL = "WITH journaled AS (DELETE FROM users_pending_updates RETURNING *) " +
+            "UPDATE users SET username = journaled.username, password = journaled.password, version = journaled.version FROM journaled " +
+            "WHERE users.id = journaled.user_id AND users.email = journaled.email AND users.version < journaled.version";
+
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserCache userCache;
+    private final ConcurrentMap<Long, User> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock[] userLocks = new ReentrantLock[LOCK_STRIPES];
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final ScheduledExecutorService flusher;
+    private Timer flushTimer;
+
+    @Autowired
+    public UserWriteBehind(@Value("${myapp.write-behind.enabled:false}") boolean enabled,
+                           @Value("${myapp.write-behind.max-batch-size:500}") int maxBatchSize,
+                           @Value("${myapp.write-behind.flush-interval-millis:50}") long flushIntervalMillis,
+                           JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           UserCache userCache) {
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userCache = userCache;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            userLocks[i] = new ReentrantLock();
+        }
+        if (enabled) {
+            recover();
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "user-write-behind");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Moves on every accepted patch, before the flush moves the database's change token.
+    public long acceptedUpdates() {
+        return updates.sum();
+    }
+
+    public Optional<User> pending(Long userId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        return Optional.ofNullable(pending.get(userId)).map(UserWriteBehind::copy);
+    }
+
+    // The merge sees the pending image when there is one, so validation runs against what readers are already shown.
+    public User patch(Long userId, Supplier<User> current, UnaryOperator<User> merge) {
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            User queued = pending.get(userId);
+            User patched = merge.apply(copy(queued != null ? queued : current.get()));
+            patched.setVersion(patched.getVersion() + 1);
+            jdbcTemplate.update(JOURNAL_SQL, userId, patched.getUsername(), patched.getPassword(), patched.getEmail(), patched.getVersion());
+
+            pending.put(userId, patched);
+            updates.increment();
+            if (pending.size() >= maxBatchSize && flushRequested.compareAndSet(false, true)) {
+                flusher.execute(this::flush);
+            }
+            return copy(patched);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // For writes that bypass the queue: the user's pending image is written first, so the database already holds the
+    // version the client was last given, and no patch to the user can slip in until the write is done.
+    public <T> T writeThrough(Long userId, Supplier<T> write) {
+        if (!enabled) {
+            return write.get();
+        }
+
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            User queued = pending.get(userId);
+            if (queued != null) {
+                write(List.of(queued));
+            }
+            return write.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // After a delete: whatever was still pending for these users has nothing left to update.
+    public void discard(Collection<Long> userIds) {
+        if (!enabled) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(DISCARD_SQL, userIds, userIds.size(), (statement, userId) -> statement.setLong(1, userId));
+        userIds.forEach(pending::remove);
+    }
+
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+            // One pass over a snapshot: a user patched while this runs is picked up, coalesced, by the next flush.
+            List<User> snapshot = new ArrayList<>(pending.values());
+            for (int from = 0; from < snapshot.size(); from += maxBatchSize) {
+                write(snapshot.subList(from, Math.min(from + maxBatchSize, snapshot.size())));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not flush pending user updates, they will be retried", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flusher != null) {
+            flusher.shutdown();
+            flush();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        flushTimer = Timer.builder("users.write-behind.flush")
+                .description("Time to write one batch of pending user updates")
+                .publishPercentileHistogram()
+                .register(registry);
+        Gauge.builder("users.write-behind.queue.depth", pending, ConcurrentMap::size)
+                .description("Users with updates waiting to be written")
+                .register(registry);
+        FunctionCounter.builder("users.write-behind.updates", updates, LongAdder::sum)
+                .description("Updates accepted into the write-behind queue")
+                .register(registry);
+        FunctionCounter.builder("users.write-behind.writes", writes, LongAdder::sum)
+                .description("Row updates written to the database after coalescing")
+                .register(registry);
+        FunctionCounter.builder("users.write-behind.dropped", dropped, LongAdder::sum)
+                .description("Pending updates whose user was gone, had a different email or already had that version when written")
+                .register(registry);
+        Gauge.builder("users.write-behind.coalescing.ratio", this, UserWriteBehind::coalescingRatio)
+                .description("Accepted updates per row update written")
+                .register(registry);
+    }
+
+    double coalescingRatio() {
+        double written = writes.sum();
+        return written == 0 ? 0 : updates.sum() / written;
+    }
+
+    // Journaled patches of a process that died before flushing; guarded by version like any other flush.
+    private void recover() {
+        int recovered = jdbcTemplate.update(RECOVER_SQL);
+        if (recovered > 0) {
+            log.info("Applied {} user updates left pending by a previous run", recovered);
+        }
+    }
+
+    private void write(List<User> batch) {
+        long start = System.nanoTime();
+        int[][] counts = transactionTemplate.execute(status -> {
+            int[][] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, batch, batch.size(), (statement, user) -> {
+                statement.setString(1, user.getUsername());
+                statement.setString(2, user.getPassword());
+                statement.setLong(3, user.getVersion());
+                statement.setLong(4, user.getId());
+                statement.setString(5, user.getEmail());
+                statement.setLong(6, user.getVersion());
+            });
+            // A patch journaled meanwhile has a higher version and stays for the next flush.
+            jdbcTemplate.batchUpdate(COMPLETE_SQL, batch, batch.size(), (statement, user) -> {
+                statement.setLong(1, user.getId());
+                statement.setLong(2, user.getVersion());
+            });
+            return updated;
+        });
+        if (flushTimer != null) {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        writes.add(batch.size());
+        for (int count : counts[0]) {
+            if (count == 0) {
+                dropped.increment();
+            }
+        }
+        // Evicted before the pending image goes away, so a reader never falls back to a cached pre-flush copy.
+        for (User user : batch) {
+            userCache.evict(user.getId());
+            pending.remove(user.getId(), user);
+        }
+    }
+
+    private ReentrantLock lockFor(Long userId) {
+        return userLocks[Math.floorMod(userId.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static User copy(User user) {
+        return user.toBuilder().build();
+    }
+}
@@ -0,0 +1,12 @@
+package com.mindera.users.statement;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+public class CountingStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        StatementStatistics.countStatement();
+        return sql;
+    }
+}
@@ -0,0 +1,53 @@
+package com.mindera.users.statement;
+
+import java.util.Locale;
+
+public final class StatementStatistics {
+    private static final ThreadLocal<StatementStatistics> CURRENT = new ThreadLocal<>();
+
+    private int count;
+    private long nanos;
+
+    private StatementStatistics() {
+    }
+
+    public static StatementStatistics start() {
+        StatementStatistics statistics = new StatementStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    public static StatementStatistics current() {
+        return CURRENT.get();
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    static void countStatement() {
+        StatementStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.count++;
+        }
+    }
+
+    static void addTime(long elapsedNanos) {
+        StatementStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.nanos += elapsedNanos;
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public String getMillis() {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,33 @@
+package com.mindera.users.statement;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// Message converters flush the body before postHandle runs, so response bodies carry the headers from here.
+@ControllerAdvice
+@ConditionalOnProperty(name = "myapp.statement-stats.enabled", havingValue = "true")
+public class StatementStatisticsAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        StatementStatistics statistics = StatementStatistics.current();
+        if (statistics != null) {
+            response.getHeaders().set(StatementStatisticsInterceptor.COUNT_HEADER, String.valueOf(statistics.getCount()));
+            response.getHeaders().set(StatementStatisticsInterceptor.TIME_HEADER, statistics.getMillis());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,65 @@
+package com.mindera.users.statement;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.util.concurrent.TimeUnit;
+
+public class StatementStatisticsInterceptor implements HandlerInterceptor {
+    public static final String COUNT_HEADER = "X-Statement-Count";
+    public static final String TIME_HEADER = "X-Statement-Time-Ms";
+
+    private final MeterRegistry meterRegistry;
+
+    public StatementStatisticsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        StatementStatistics.start();
+        return true;
+    }
+
+    // Handlers without a body reach this point uncommitted; the rest get their headers from StatementStatisticsAdvice.
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) {
+        writeHeaders(response);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        StatementStatistics statistics = StatementStatistics.current();
+        StatementStatistics.stop();
+        if (statistics == null) {
+            return;
+        }
+
+        String handlerName = handler instanceof HandlerMethod handlerMethod ? handlerMethod.getMethod().getName() : "none";
+        DistributionSummary.builder("users.request.statements")
+                .description("SQL statements issued while handling a request")
+                .tag("handler", handlerName)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(statistics.getCount());
+        Timer.builder("users.request.statement.time")
+                .description("Time spent executing SQL statements while handling a request")
+                .tag("handler", handlerName)
+                .register(meterRegistry)
+                .record(statistics.getNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private static void writeHeaders(HttpServletResponse response) {
+        StatementStatistics statistics = StatementStatistics.current();
+        if (statistics != null && !response.isCommitted()) {
+            response.setHeader(COUNT_HEADER, String.valueOf(statistics.getCount()));
+            response.setHeader(TIME_HEADER, statistics.getMillis());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.mindera.users.statement;
+
+import org.hibernate.BaseSessionEventListener;
+
+// Hibernate creates one listener per session, and a session is never shared between threads.
+public class StatementTimingListener extends BaseSessionEventListener {
+    private long startNanos;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        StatementStatistics.addTime(System.nanoTime() - startNanos);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        StatementStatistics.addTime(System.nanoTime() - startNanos);
+    }
+}
@@ -0,0 +1,67 @@
+CREATE SEQUENCE IF NOT EXISTS users_id_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS users (
+    id       BIGINT PRIMARY KEY DEFAULT nextval('users_id_seq'),
+    username VARCHAR(255),
+    password VARCHAR(255),
+    email    VARCHAR(255)
+);
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+ALTER SEQUENCE users_id_seq OWNED BY users.id;
+
+CREATE TABLE IF NOT EXISTS users_changes (
+    shard   INT PRIMARY KEY,
+    changes BIGINT NOT NULL
+);
+
+INSERT INTO users_changes (shard, changes) SELECT shard, 0 FROM generate_series(0, 15) AS shard ON CONFLICT DO NOTHING;
+
+CREATE OR REPLACE FUNCTION count_users_change() RETURNS trigger AS '
+BEGIN
+    UPDATE users_changes SET changes = changes + 1 WHERE shard = pg_backend_pid() % 16;
+    RETURN NULL;
+END' LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS users_changed ON users;
+CREATE TRIGGER users_changed AFTER INSERT OR UPDATE OR DELETE ON users FOR EACH STATEMENT EXECUTE FUNCTION count_users_change();
+
+DROP INDEX IF EXISTS users_email_idx;
+CREATE UNIQUE INDEX IF NOT EXISTS users_email_lower_key ON users (lower(email));
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS users_username_trgm_idx ON users USING gin (lower(username) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS users_email_trgm_idx ON users USING gin (lower(email) gin_trgm_ops);
+
+CREATE TABLE IF NOT EXISTS users_outbox (
+    id       BIGSERIAL PRIMARY KEY,
+    type     VARCHAR(16) NOT NULL,
+    user_id  BIGINT NOT NULL,
+    username VARCHAR(255),
+    email    VARCHAR(255),
+    version  BIGINT
+);
+
+CREATE OR REPLACE FUNCTION record_user_change() RETURNS trigger AS '
+BEGIN
+    IF TG_OP = ''DELETE'' THEN
+        INSERT INTO users_outbox (type, user_id, email, version) VALUES (''DELETED'', OLD.id, OLD.email, OLD.version);
+    ELSE
+        INSERT INTO users_outbox (type, user_id, username, email, version)
+        VALUES (CASE TG_OP WHEN ''INSERT'' THEN ''CREATED'' ELSE ''UPDATED'' END, NEW.id, NEW.username, NEW.email, NEW.version);
+    END IF;
+    RETURN NULL;
+END' LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS users_outbox_changed ON users;
+CREATE TRIGGER users_outbox_changed AFTER INSERT OR UPDATE OR DELETE ON users FOR EACH ROW EXECUTE FUNCTION record_user_change();
+
+CREATE TABLE IF NOT EXISTS users_pending_updates (
+    user_id  BIGINT PRIMARY KEY,
+    username VARCHAR(255),
+    password VARCHAR(255),
+    email    VARCHAR(255) NOT NULL,
+    version  BIGINT NOT NULL
+);
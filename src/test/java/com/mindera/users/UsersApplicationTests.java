@@ -1,11 +1,19 @@
 package com.mindera.users;
 
+import com.mindera.users.support.EmbeddedPostgresDatabase;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 
 @SpringBootTest
 class UsersApplicationTests {
 
+	@DynamicPropertySource
+	static void database(DynamicPropertyRegistry registry) {
+		EmbeddedPostgresDatabase.registerProperties(registry);
+	}
+
 	@Test
 	void contextLoads() {
 	}
@@ -0,0 +1,86 @@
+package com.mindera.users.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTests {
+
+    private static final long FAST = 5_000_000;
+    private static final long SLOW = 50_000_000;
+
+    @Test
+    void testRequestsOverTheLimitAreRejected() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10);
+
+        assertEquals(1, limit.tryAcquire(1.0));
+        assertEquals(2, limit.tryAcquire(1.0));
+        assertEquals(-1, limit.tryAcquire(1.0));
+
+        limit.release(FAST, 2, false);
+        assertEquals(2, limit.tryAcquire(1.0));
+    }
+
+    @Test
+    void testLimitGrowsWhileLatencyHoldsAndShrinksWhenItClimbs() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 200);
+
+        for (int i = 0; i < 50; i++) {
+            limit.tryAcquire(1.0);
+            limit.release(FAST, limit.getLimit(), false);
+        }
+        int grown = limit.getLimit();
+        assertTrue(grown > 20, "limit: " + grown);
+
+        for (int i = 0; i < 50; i++) {
+            limit.tryAcquire(1.0);
+            limit.release(SLOW, limit.getLimit(), false);
+        }
+        assertTrue(limit.getLimit() < grown, "limit: " + limit.getLimit());
+    }
+
+    @Test
+    void testIdleEndpointKeepsItsLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 200);
+
+        for (int i = 0; i < 50; i++) {
+            limit.tryAcquire(1.0);
+            limit.release(FAST, 1, false);
+        }
+
+        assertEquals(20, limit.getLimit());
+    }
+
+    @Test
+    void testFailuresBackOffToTheMinimum() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 200);
+
+        for (int i = 0; i < 50; i++) {
+            limit.tryAcquire(1.0);
+            limit.release(FAST, 1, true);
+        }
+
+        assertEquals(4, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    void testConcurrentReleasesKeepTheLimitInBounds() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 200);
+
+        CompletableFuture.allOf(IntStream.range(0, 8).mapToObj(thread -> CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                int inFlight = limit.tryAcquire(1.0);
+                if (inFlight > 0) {
+                    limit.release(i % 2 == 0 ? FAST : SLOW, inFlight, i % 100 == 0);
+                }
+            }
+        })).toArray(CompletableFuture[]::new)).join();
+
+        assertEquals(0, limit.getInFlight());
+        assertTrue(limit.getLimit() >= 4 && limit.getLimit() <= 200, "limit: " + limit.getLimit());
+    }
+}
@@ -0,0 +1,41 @@
+package com.mindera.users.admission;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionLimiterTests {
+
+    private final AdmissionLimiter limiter = new AdmissionLimiter(4, 1, 10, 0.5, 60_000);
+
+    @Test
+    void testBulkRequestsOnlyGetTheirShareOfTheLimit() {
+        assertNotNull(limiter.tryAcquire("getUsers", true));
+        assertNotNull(limiter.tryAcquire("getUsers", true));
+        assertNull(limiter.tryAcquire("getUsers", true));
+    }
+
+    @Test
+    void testBulkRequestsAreShedWhileCheapOnesAreBeingRejected() {
+        for (int i = 0; i < 4; i++) {
+            assertNotNull(limiter.tryAcquire("getUserById", false));
+        }
+        assertNull(limiter.tryAcquire("getUserById", false));
+
+        assertNull(limiter.tryAcquire("getUsers", true));
+        assertNotNull(limiter.tryAcquire("addUser", false));
+    }
+
+    @Test
+    void testReleasedPermitIsAvailableAgain() {
+        AdmissionLimiter.Permit permit = limiter.tryAcquire("deleteUserById", false);
+        for (int i = 0; i < 3; i++) {
+            assertNotNull(limiter.tryAcquire("deleteUserById", false));
+        }
+        assertNull(limiter.tryAcquire("deleteUserById", false));
+
+        limiter.release(permit, false);
+
+        assertNotNull(limiter.tryAcquire("deleteUserById", false));
+    }
+}
@@ -0,0 +1,46 @@
+package com.mindera.users.admission;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientRateLimiterTests {
+
+    private final MockEnvironment environment = new MockEnvironment()
+            .withProperty("myapp.rate-limit.endpoints.getUsers.requests-per-second", "1")
+            .withProperty("myapp.rate-limit.endpoints.getUsers.burst", "2");
+    private final ClientRateLimiter limiter = new ClientRateLimiter(100, 3, 60_000, 1_000, environment);
+
+    @Test
+    void testBurstIsAllowedThenClientMustWait() {
+        assertEquals(0, limiter.tryAcquire("getUserById", "ip:10.0.0.1"));
+        assertEquals(0, limiter.tryAcquire("getUserById", "ip:10.0.0.1"));
+        assertEquals(0, limiter.tryAcquire("getUserById", "ip:10.0.0.1"));
+
+        long wait = limiter.tryAcquire("getUserById", "ip:10.0.0.1");
+        assertTrue(wait > 0 && wait <= 10_000_000, "wait: " + wait);
+    }
+
+    @Test
+    void testBucketRefillsAtTheConfiguredRate() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("getUserById", "ip:10.0.0.1");
+        }
+        assertTrue(limiter.tryAcquire("getUserById", "ip:10.0.0.1") > 0);
+
+        Thread.sleep(20);
+
+        assertEquals(0, limiter.tryAcquire("getUserById", "ip:10.0.0.1"));
+    }
+
+    @Test
+    void testClientsAndEndpointsHaveSeparateBuckets() {
+        assertEquals(0, limiter.tryAcquire("getUsers", "user:ricardo@10.0.0.2"));
+        assertEquals(0, limiter.tryAcquire("getUsers", "user:ricardo@10.0.0.2"));
+        assertTrue(limiter.tryAcquire("getUsers", "user:ricardo@10.0.0.2") > 0);
+
+        assertEquals(0, limiter.tryAcquire("getUsers", "ip:10.0.0.1"));
+        assertEquals(0, limiter.tryAcquire("getUserById", "user:ricardo@10.0.0.2"));
+    }
+}
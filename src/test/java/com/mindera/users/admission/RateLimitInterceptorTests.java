@@ -0,0 +1,62 @@
+package com.mindera.users.admission;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitInterceptorTests {
+
+    private static final String PROXY = "10.0.0.100";
+
+    private final RateLimitInterceptor interceptor = new RateLimitInterceptor(new ClientRateLimiter(1, 1, 60_000, 1_000, new MockEnvironment()), Set.of(PROXY));
+    private final HandlerMethod handler;
+
+    RateLimitInterceptorTests() throws NoSuchMethodException {
+        handler = new HandlerMethod(this, RateLimitInterceptorTests.class.getDeclaredMethod("getUsers"));
+    }
+
+    @Test
+    void testClientsSharingALoginAreKeyedByAddress() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request("10.0.0.1", null), new MockHttpServletResponse(), handler));
+        assertTrue(interceptor.preHandle(request("10.0.0.2", null), new MockHttpServletResponse(), handler));
+        assertFalse(interceptor.preHandle(request("10.0.0.1", null), response, handler));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus());
+    }
+
+    @Test
+    void testClientIdFromAnUntrustedCallerIsIgnored() {
+        assertTrue(interceptor.preHandle(request("10.0.0.1", "first"), new MockHttpServletResponse(), handler));
+
+        assertFalse(interceptor.preHandle(request("10.0.0.1", "second"), new MockHttpServletResponse(), handler));
+    }
+
+    @Test
+    void testClientIdFromATrustedProxyKeysTheBucket() {
+        assertTrue(interceptor.preHandle(request(PROXY, "billing"), new MockHttpServletResponse(), handler));
+        assertTrue(interceptor.preHandle(request(PROXY, "reporting"), new MockHttpServletResponse(), handler));
+
+        assertFalse(interceptor.preHandle(request(PROXY, "billing"), new MockHttpServletResponse(), handler));
+    }
+
+    private static MockHttpServletRequest request(String address, String clientId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user");
+        request.setRemoteAddr(address);
+        request.setUserPrincipal(() -> "ricardo");
+        if (clientId != null) {
+            request.addHeader(RateLimitInterceptor.CLIENT_ID_HEADER, clientId);
+        }
+        return request;
+    }
+
+    private void getUsers() {
+    }
+}
@@ -0,0 +1,39 @@
+package com.mindera.users.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTests {
+
+    @Test
+    void testAddedValuesAreAlwaysReported() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+
+        IntStream.range(0, 10_000).forEach(i -> filter.add("user" + i + "@gmail.com"));
+
+        assertTrue(IntStream.range(0, 10_000).allMatch(i -> filter.mightContain("user" + i + "@gmail.com")));
+    }
+
+    @Test
+    void testFalsePositiveRateStaysNearConfiguredProbability() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.add("user" + i + "@gmail.com"));
+
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain("other" + i + "@gmail.com"))
+                .count();
+
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+        assertTrue(filter.expectedFalsePositiveProbability() < 0.02);
+    }
+
+    @Test
+    void testMemoryUsesOneBitPerSlot() {
+        BloomFilter filter = new BloomFilter(1_000_000, 0.01);
+
+        assertTrue(filter.memoryInBytes() < 2 * 1024 * 1024, "bytes: " + filter.memoryInBytes());
+    }
+}
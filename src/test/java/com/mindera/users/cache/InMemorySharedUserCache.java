@@ -0,0 +1,72 @@
+package com.mindera.users.cache;
+
+import com.mindera.users.entity.User;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Stand-in for the Redis tier: every instance created by the same {@link Broker} shares one store and
+ * receives the invalidations published by the other instances.
+ */
+class InMemorySharedUserCache implements SharedUserCache {
+
+    static class Broker {
+        private final Map<Long, User> store = new ConcurrentHashMap<>();
+        private final List<InMemorySharedUserCache> instances = new CopyOnWriteArrayList<>();
+
+        InMemorySharedUserCache connect() {
+            InMemorySharedUserCache instance = new InMemorySharedUserCache(this);
+            instances.add(instance);
+            return instance;
+        }
+
+        Map<Long, User> store() {
+            return store;
+        }
+
+        private void publish(InMemorySharedUserCache origin, Long userId) {
+            instances.stream()
+                    .filter(instance -> instance != origin)
+                    .forEach(instance -> instance.listeners.forEach(listener -> listener.accept(userId)));
+        }
+    }
+
+    private final Broker broker;
+    private final List<Consumer<Long>> listeners = new CopyOnWriteArrayList<>();
+
+    private InMemorySharedUserCache(Broker broker) {
+        this.broker = broker;
+    }
+
+    @Override
+    public Optional<User> get(Long userId) {
+        return Optional.ofNullable(broker.store.get(userId)).map(user -> user.toBuilder().build());
+    }
+
+    @Override
+    public void put(User user) {
+        broker.store.put(user.getId(), user.toBuilder().build());
+        broker.publish(this, user.getId());
+    }
+
+    @Override
+    public void fill(User user) {
+        broker.store.putIfAbsent(user.getId(), user.toBuilder().build());
+    }
+
+    @Override
+    public void evict(Long userId) {
+        broker.store.remove(userId);
+        broker.publish(this, userId);
+    }
+
+    @Override
+    public void onInvalidation(Consumer<Long> listener) {
+        listeners.add(listener);
+    }
+}
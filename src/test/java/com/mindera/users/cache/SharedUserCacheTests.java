@@ -0,0 +1,91 @@
+package com.mindera.users.cache;
+
+import com.mindera.users.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedUserCacheTests {
+
+    private final InMemorySharedUserCache.Broker broker = new InMemorySharedUserCache.Broker();
+    private final UserCache instanceA = new UserCache(100, 60_000, true, 5_000, broker.connect());
+    private final UserCache instanceB = new UserCache(100, 60_000, true, 5_000, broker.connect());
+
+    @Test
+    void testLoadOnOneInstanceIsSharedWithTheOthers() {
+        AtomicInteger loads = new AtomicInteger();
+        User user = new User(1L, "user123", "password123", "user@gmail.com", null);
+
+        instanceA.get(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(user);
+        });
+        Optional<User> fromB = instanceB.get(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(user);
+        });
+
+        assertEquals("user123", fromB.get().getUsername());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testWriteOnOneInstanceInvalidatesTheOthers() {
+        User user = new User(1L, "user123", "password123", "user@gmail.com", null);
+        instanceA.get(1L, id -> Optional.of(user));
+        instanceB.get(1L, id -> Optional.of(user));
+
+        instanceA.put(new User(1L, "renamed", "password123", "user@gmail.com", null));
+
+        assertEquals("renamed", instanceB.get(1L, id -> fail("should come from the shared tier")).get().getUsername());
+    }
+
+    @Test
+    void testReadThroughFillDoesNotOverwriteAConcurrentWrite() {
+        User stale = new User(1L, "user123", "password123", "user@gmail.com", null);
+
+        instanceA.get(1L, id -> {
+            broker.store().put(1L, new User(1L, "renamed", "password123", "user@gmail.com", null));
+            return Optional.of(stale);
+        });
+
+        assertEquals("renamed", broker.store().get(1L).getUsername());
+    }
+
+    @Test
+    void testReadThroughFillDoesNotInvalidateTheOthers() {
+        User user = new User(1L, "user123", "password123", "user@gmail.com", null);
+        instanceB.get(1L, id -> Optional.of(user));
+        broker.store().clear();
+
+        instanceA.get(1L, id -> Optional.of(user));
+
+        assertEquals("user123", instanceB.getIfCached(1L).get().getUsername());
+    }
+
+    @Test
+    void testEvictOnOneInstanceInvalidatesTheOthers() {
+        User user = new User(1L, "user123", "password123", "user@gmail.com", null);
+        instanceA.get(1L, id -> Optional.of(user));
+        instanceB.get(1L, id -> Optional.of(user));
+
+        instanceA.evict(1L);
+
+        assertFalse(broker.store().containsKey(1L));
+        assertTrue(instanceB.get(1L, id -> Optional.empty()).isEmpty());
+    }
+
+    @Test
+    void testUserRedisSerializerRoundTrip() {
+        UserRedisSerializer serializer = new UserRedisSerializer();
+        User user = new User(42L, "user123", null, "user@gmail.com", null);
+
+        byte[] bytes = serializer.serialize(user);
+
+        assertEquals(user, serializer.deserialize(bytes));
+        assertTrue(bytes.length < 40);
+    }
+}
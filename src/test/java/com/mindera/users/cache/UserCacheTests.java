@@ -0,0 +1,111 @@
+package com.mindera.users.cache;
+
+import com.mindera.users.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCacheTests {
+
+    @Test
+    void testGetLoadsOnceAndCountsHitsAndMisses() {
+        UserCache userCache = new UserCache(100, 60_000, true, 5_000, SharedUserCache.NONE);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            userCache.get(1L, id -> {
+                loads.incrementAndGet();
+                return Optional.of(new User(id, "user123", "password123", "user@gmail.com", null));
+            });
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(2, userCache.stats().hitCount());
+        assertEquals(1, userCache.stats().missCount());
+    }
+
+    @Test
+    void testMissesAreNotCachedWhenNegativeCachingIsDisabled() {
+        UserCache userCache = new UserCache(100, 60_000, false, 5_000, SharedUserCache.NONE);
+        AtomicInteger loads = new AtomicInteger();
+
+        userCache.get(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        Optional<User> user = userCache.get(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        assertTrue(user.isEmpty());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testPutReplacesNegativeEntry() {
+        UserCache userCache = new UserCache(100, 60_000, true, 5_000, SharedUserCache.NONE);
+        userCache.get(1L, id -> Optional.empty());
+
+        userCache.put(new User(1L, "user123", "password123", "user@gmail.com", null));
+
+        assertEquals("user123", userCache.get(1L, id -> fail("should be cached")).get().getUsername());
+    }
+
+    @Test
+    void testEvictForcesReload() {
+        UserCache userCache = new UserCache(100, 60_000, true, 5_000, SharedUserCache.NONE);
+        userCache.put(new User(1L, "user123", "password123", "user@gmail.com", null));
+
+        userCache.evict(1L);
+
+        Optional<User> user = userCache.get(1L, id -> Optional.of(new User(id, "reloaded", "password123", "user@gmail.com", null)));
+        assertEquals("reloaded", user.get().getUsername());
+    }
+
+    @Test
+    void testCachedUserIsACopyOfTheLoadedEntity() {
+        UserCache userCache = new UserCache(100, 60_000, true, 5_000, SharedUserCache.NONE);
+        User entity = new User(1L, "user123", "password123", "user@gmail.com", null);
+        userCache.get(1L, id -> Optional.of(entity));
+
+        entity.setUsername("mutated");
+
+        assertEquals("user123", userCache.get(1L, id -> Optional.empty()).get().getUsername());
+    }
+
+    @Test
+    void testConcurrentMissesShareOneLoad() throws Exception {
+        UserCache userCache = new UserCache(100, 60_000, true, 5_000, SharedUserCache.NONE);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Optional<User>> first = CompletableFuture.supplyAsync(() -> userCache.get(1L, id -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Optional.of(new User(id, "user123", "password123", "user@gmail.com", null));
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Optional<User>> second = CompletableFuture.supplyAsync(() -> userCache.get(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        }));
+        release.countDown();
+
+        assertEquals("user123", first.get(5, TimeUnit.SECONDS).get().getUsername());
+        assertEquals("user123", second.get(5, TimeUnit.SECONDS).get().getUsername());
+        assertEquals(1, loads.get());
+    }
+}
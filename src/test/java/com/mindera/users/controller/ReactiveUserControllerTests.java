@@ -0,0 +1,304 @@
+package com.mindera.users.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindera.users.dto.UserImportResult;
+import com.mindera.users.entity.User;
+import com.mindera.users.support.EmbeddedPostgresDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+@ActiveProfiles("reactive")
+public class ReactiveUserControllerTests {
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresDatabase.registerProperties(registry);
+    }
+
+    @Autowired
+    private ReactiveUserController userController;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    public void setup() {
+        databaseClient.sql("DELETE FROM users").then().block();
+        // Responses are written with the application's mapper, as in production; requests keep the client's own.
+        client = WebTestClient.bindToController(userController)
+                .httpMessageCodecs(codecs -> codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper)))
+                .build();
+    }
+
+    @Test
+    void testPostAndGetUser() {
+        User created = post(user("user123", "user@gmail.com"));
+
+        client.get().uri("/user/{id}", created.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.username").isEqualTo("user123")
+                .jsonPath("$.email").isEqualTo("user@gmail.com");
+    }
+
+    @Test
+    void testPostUserWithExistingEmailThrowsConflict() {
+        post(user("user123", "user@gmail.com"));
+
+        client.post().uri("/user")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(user("other", "USER@gmail.com"))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    void testPostUserWithBlankFieldsThrowsBadRequest() {
+        client.post().uri("/user")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(user(" ", "user@gmail.com"))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testGetMissingUserThrowsNotFound() {
+        client.get().uri("/user/{id}", 42)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testGetUsersPagesWithCursor() {
+        User first = post(user("user1", "user1@gmail.com"));
+        User second = post(user("user2", "user2@gmail.com"));
+        User third = post(user("user3", "user3@gmail.com"));
+
+        List<User> page = client.get().uri("/user?limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(UserController.NEXT_CURSOR_HEADER, String.valueOf(second.getId()))
+                .expectBodyList(User.class)
+                .returnResult()
+                .getResponseBody();
+        assertEquals(List.of(first.getId(), second.getId()), page.stream().map(User::getId).toList());
+
+        List<User> lastPage = client.get().uri("/user?after={after}&limit=2", second.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(UserController.NEXT_CURSOR_HEADER)
+                .expectBodyList(User.class)
+                .returnResult()
+                .getResponseBody();
+        assertEquals(List.of(third.getId()), lastPage.stream().map(User::getId).toList());
+    }
+
+    @Test
+    void testPostedUsersShareAnIdBlock() {
+        User first = post(user("user1", "user1@gmail.com"));
+        post(user("user2", "user2@gmail.com"));
+        User third = post(user("user3", "user3@gmail.com"));
+
+        assertTrue(third.getId() - first.getId() < User.ID_ALLOCATION_SIZE, first.getId() + " then " + third.getId());
+    }
+
+    @Test
+    void testGetUsersWithInvalidLimitThrowsBadRequest() {
+        client.get().uri("/user?limit=0")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testSearchUsersRanksPrefixMatchesFirst() {
+        User fuzzy = post(user("ricardp", "other@gmail.com"));
+        User prefix = post(user("ricardo", "ricardo@gmail.com"));
+        post(user("marco", "marco@gmail.com"));
+
+        List<User> found = client.get().uri("/user/search?q=ricardo")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(User.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertEquals(List.of(prefix.getId(), fuzzy.getId()), found.stream().map(User::getId).toList());
+    }
+
+    @Test
+    void testExportStreamsNdjson() {
+        post(user("user1", "user1@gmail.com"));
+        post(user("user2", "user2@gmail.com"));
+
+        String body = client.get().uri("/user/export")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"username\":\"user1\""));
+        assertTrue(lines[1].contains("\"username\":\"user2\""));
+    }
+
+    @Test
+    void testPatchUser() {
+        User created = post(user("user123", "user@gmail.com"));
+        User patch = User.builder().id(created.getId()).username("patched").email("user@gmail.com").build();
+
+        client.patch().uri("/user/{id}", created.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(patch)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.username").isEqualTo("patched")
+                .jsonPath("$.password").doesNotExist();
+
+        assertEquals("password123", databaseClient.sql("SELECT password FROM users WHERE id = :id")
+                .bind("id", created.getId())
+                .map(row -> row.get("password", String.class))
+                .one()
+                .block());
+    }
+
+    @Test
+    void testPatchUserRejectsIdMismatchAndEmailChange() {
+        User created = post(user("user123", "user@gmail.com"));
+
+        client.patch().uri("/user/{id}", created.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(User.builder().id(created.getId() + 1).email("user@gmail.com").build())
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        client.patch().uri("/user/{id}", created.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(User.builder().id(created.getId()).email("other@gmail.com").build())
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        client.patch().uri("/user/{id}", created.getId() + 1)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(User.builder().id(created.getId()).email("user@gmail.com").build())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testPutUser() {
+        User created = post(user("user123", "user@gmail.com"));
+        User replacement = User.builder().id(created.getId()).username("replaced").password("replaced123").email("user@gmail.com").build();
+
+        client.put().uri("/user/{id}", created.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(replacement)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.username").isEqualTo("replaced")
+                .jsonPath("$.password").doesNotExist();
+    }
+
+    @Test
+    void testDeleteUser() {
+        User created = post(user("user123", "user@gmail.com"));
+
+        client.delete().uri("/user/{id}", created.getId())
+                .exchange()
+                .expectStatus().isOk();
+
+        client.get().uri("/user/{id}", created.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+
+        client.delete().uri("/user/{id}", created.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testDeleteUsersById() {
+        User first = post(user("user1", "user1@gmail.com"));
+        User second = post(user("user2", "user2@gmail.com"));
+
+        client.delete().uri("/user?ids={ids}", first.getId() + "," + second.getId() + ",0")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.requested").isEqualTo(3)
+                .jsonPath("$.deleted").isEqualTo(2);
+
+        client.get().uri("/user/{id}", second.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testImportUsersNdjson() {
+        post(user("existing", "existing@gmail.com"));
+        String body = """
+                {"username":"user1","password":"password123","email":"user1@gmail.com"}
+                {"username":"","password":"password123","email":"user2@gmail.com"}
+                {"username":"user3","password":"password123","email":"USER1@gmail.com"}
+                {"username":"user4","password":"password123","email":"existing@gmail.com"}
+                """;
+
+        List<UserImportResult> results = client.post().uri("/user/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(UserImportResult.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertEquals(List.of(UserImportResult.Status.CREATED, UserImportResult.Status.INVALID,
+                        UserImportResult.Status.DUPLICATE, UserImportResult.Status.DUPLICATE),
+                results.stream().map(UserImportResult::getStatus).toList());
+        assertNotNull(results.get(0).getId());
+        assertEquals(3, results.get(3).getIndex());
+    }
+
+    private User post(User user) {
+        return client.post().uri("/user")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(user)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(User.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private static User user(String username, String email) {
+        return User.builder()
+                .username(username)
+                .password("password123")
+                .email(email)
+                .build();
+    }
+}
@@ -0,0 +1,88 @@
+package com.mindera.users.controller;
+
+import com.mindera.users.datasource.ReadYourWritesInterceptor;
+import com.mindera.users.support.EmbeddedPostgresDatabase;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// The replica is a separate database that nothing replicates into, so a row only it has shows where a read was routed.
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+public class ReplicaRoutingTests {
+    private static final String UNREACHABLE_REPLICA_URL = "jdbc:postgresql://localhost:1/postgres";
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresDatabase.registerProperties(registry);
+        String replicaUrl = EmbeddedPostgresDatabase.createDatabase("replica");
+        DataSource replica = EmbeddedPostgresDatabase.get().getDatabase("postgres", "replica");
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("schema.sql"));
+        populator.setContinueOnError(true);
+        populator.execute(replica);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(replica);
+        jdbcTemplate.update("DELETE FROM users WHERE id BETWEEN 900001 AND 900003");
+        jdbcTemplate.update("INSERT INTO users (id, username, password, email) VALUES " +
+                "(900001, 'replica1', 'password123', 'replica1@gmail.com'), " +
+                "(900002, 'replica2', 'password123', 'replica2@gmail.com'), " +
+                "(900003, 'replica3', 'password123', 'replica3@gmail.com')");
+
+        registry.add("myapp.replicas.enabled", () -> "true");
+        registry.add("myapp.replicas.urls", () -> UNREACHABLE_REPLICA_URL + "," + replicaUrl);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testReadsAreServedByAReplicaAndSkipAnUnreachableOne() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/user/search").param("q", "replica1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].username", Matchers.hasItem("replica1")));
+        mockMvc.perform(MockMvcRequestBuilders.get("/user/search").param("q", "replica3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].username", Matchers.hasItem("replica3")));
+
+        assertTrue(meterRegistry.get("users.datasource.replica.failures").functionCounter().count() >= 1);
+    }
+
+    // A cache miss fills the local and shared caches for their whole TTL, so it must not see a lagging replica.
+    @Test
+    void testUserByIdIsCachedFromThePrimary() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/user/900001"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testWriteMakesTheClientReadFromThePrimary() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.delete("/user/900002"))
+                .andExpect(status().isNotFound())
+                .andExpect(header().string(HttpHeaders.SET_COOKIE, Matchers.startsWith(ReadYourWritesInterceptor.COOKIE_NAME + "=")));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/user/search").param("q", "replica2")
+                        .cookie(new Cookie(ReadYourWritesInterceptor.COOKIE_NAME, String.valueOf(System.currentTimeMillis() + 60_000))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].username", Matchers.not(Matchers.hasItem("replica2"))));
+    }
+}
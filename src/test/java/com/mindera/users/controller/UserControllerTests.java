@@ -1,27 +1,50 @@
 package com.mindera.users.controller;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.mindera.users.cache.EmailBloomFilter;
+import com.mindera.users.dto.UserField;
 import com.mindera.users.entity.User;
 import com.mindera.users.repository.UserRepository;
+import com.mindera.users.service.UserService;
+import com.mindera.users.support.EmbeddedPostgresDatabase;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.hamcrest.Matchers;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 
+import java.io.ByteArrayOutputStream;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
-
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -29,13 +52,25 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @AutoConfigureMockMvc(addFilters=false)
 public class UserControllerTests {
 
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresDatabase.registerProperties(registry);
+    }
+
     @Autowired
     private MockMvc mockMvc;
 
     @MockBean
     private UserRepository userRepository;
 
+    @Autowired
+    private EmailBloomFilter emailBloomFilter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private final ObjectMapper mapper = new ObjectMapper();
+    private final ObjectMapper cborMapper = new CBORMapper();
 
     User newUser = User.builder()
             .username("test")
@@ -76,7 +111,11 @@ public class UserControllerTests {
                 .email("user@gmail.com")
                 .build();
 
-        Mockito.when(userRepository.save(user)).thenReturn(user);
+        Mockito.when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+            User savedUser = invocation.getArgument(0);
+            savedUser.setId(1L);
+            return savedUser;
+        });
 
         mockMvc.perform(MockMvcRequestBuilders.post("/user")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -85,6 +124,23 @@ public class UserControllerTests {
                 .andExpect(jsonPath("$.username", Matchers.is("user123")));
     }
 
+    @Test
+    void testPostUserWithExistingEmailThrowsConflict() throws Exception {
+        User user = User.builder()
+                .username("user123")
+                .password("password123")
+                .email("user@gmail.com")
+                .build();
+
+        Mockito.when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException("duplicate key",
+                new ConstraintViolationException("duplicate key", null, "users_email_lower_key")));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/user")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(user)))
+                .andExpect(status().isConflict());
+    }
+
 
     // If ID, username, password or email null or empty -> HttpStatus.BAD_REQUEST -> "User ID username, password and user email cannot be null or empty"
     @Test
@@ -178,17 +234,271 @@ public class UserControllerTests {
 
 
 
+    @Test
+    void testImportUsersFromJsonArray() throws Exception {
+        List<User> users = Arrays.asList(
+                new User(null, "user123", "password123", "user@gmail.com", null),
+                new User(null, "user456", "password456", "", null)
+        );
+
+        Mockito.when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+        Mockito.when(userRepository.saveAllAndFlush(anyIterable())).thenAnswer(this::assignIds);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/user/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(users)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(2)))
+                .andExpect(jsonPath("$[0].status", Matchers.is("CREATED")))
+                .andExpect(jsonPath("$[1].status", Matchers.is("INVALID")));
+    }
+
+    @Test
+    void testImportUsersFromNdjson() throws Exception {
+        emailBloomFilter.add("user456@gmail.com");
+        Mockito.when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of("user456@gmail.com"));
+        Mockito.when(userRepository.saveAllAndFlush(anyIterable())).thenAnswer(this::assignIds);
+
+        String body = mapper.writeValueAsString(new User(null, "user123", "password123", "user@gmail.com", null)) + "\n" +
+                mapper.writeValueAsString(new User(null, "user456", "password456", "user456@gmail.com", null)) + "\n";
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/user/batch")
+                        .contentType(UserController.APPLICATION_NDJSON_VALUE)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", Matchers.is("CREATED")))
+                .andExpect(jsonPath("$[1].status", Matchers.is("DUPLICATE")));
+    }
+
+    @Test
+    void testImportUsersFromCborSequence() throws Exception {
+        Mockito.when(userRepository.saveAllAndFlush(anyIterable())).thenAnswer(this::assignIds);
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(cborMapper.writeValueAsBytes(new User(null, "user123", "password123", "cbor1@gmail.com", null)));
+        body.write(cborMapper.writeValueAsBytes(new User(null, "user456", "password456", "cbor2@gmail.com", null)));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/user/batch")
+                        .contentType(UserController.APPLICATION_CBOR_SEQ_VALUE)
+                        .content(body.toByteArray()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", Matchers.is("CREATED")))
+                .andExpect(jsonPath("$[1].status", Matchers.is("CREATED")));
+    }
+
+    @Test
+    void testAddUserAsCbor() throws Exception {
+        Mockito.when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+            User savedUser = invocation.getArgument(0);
+            savedUser.setId(1L);
+            return savedUser;
+        });
+
+        byte[] response = mockMvc.perform(MockMvcRequestBuilders.post("/user")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(new User(null, "user123", "password123", "cbor@gmail.com", null))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        User user = cborMapper.readValue(response, User.class);
+        assertEquals(1L, user.getId());
+        assertEquals("user123", user.getUsername());
+    }
+
+    private Iterable<User> assignIds(InvocationOnMock invocation) {
+        Iterable<User> users = invocation.getArgument(0);
+        long id = 100L;
+        for (User user : users) {
+            user.setId(id++);
+        }
+        return users;
+    }
+
     @Test
     void testGetAllUsers() throws Exception {
         List<User> users = Arrays.asList(
-                new User(1L, "user123", "password123", "user@gmail.com"),
-                new User(2L, "user456", "password456", "user456@gmail.com")
+                new User(1L, "user123", null, "user@gmail.com", null),
+                new User(2L, "user456", null, "user456@gmail.com", null)
         );
 
-        Mockito.when(userRepository.findAll()).thenReturn(users);
+        Mockito.when(userRepository.findPage(UserField.DEFAULT, 0L, 100)).thenReturn(users);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/user"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(2)))
+                .andExpect(jsonPath("$[0].password").doesNotExist())
+                .andExpect(header().doesNotExist(UserController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void testGetUsersFullPageReturnsNextCursor() throws Exception {
+        List<User> users = List.of(User.builder().id(3L).build(), User.builder().id(7L).build());
+
+        Mockito.when(userRepository.findPage(eq(UserField.DEFAULT), eq(2L), eq(2))).thenReturn(users);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/user")
+                        .param("after", "2")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(UserController.NEXT_CURSOR_HEADER, "7"));
+    }
+
+    @Test
+    void testGetUsersSelectsOnlyRequestedFields() throws Exception {
+        Set<UserField> fields = EnumSet.of(UserField.ID, UserField.EMAIL);
+        Mockito.when(userRepository.findPage(fields, 0L, 100)).thenReturn(List.of(User.builder().id(1L).email("user@gmail.com").build()));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/user")
+                        .param("fields", "email"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].email", Matchers.is("user@gmail.com")))
+                .andExpect(jsonPath("$[0].username").doesNotExist());
+    }
+
+    @Test
+    void testGetUserByIdProjectsRequestedFields() throws Exception {
+        Mockito.when(userRepository.findById(23L)).thenReturn(Optional.of(new User(23L, "user123", "password123", "user@gmail.com", 1L)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/user/23")
+                        .param("fields", "username,version"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"id\":23,\"username\":\"user123\",\"version\":1}", true));
+    }
+
+    @Test
+    void testGetUserByIdWithUnknownFieldThrowsBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/user/1")
+                        .param("fields", "id,secret"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testExportUsersWritesOneJsonObjectPerLine() throws Exception {
+        Mockito.when(userRepository.streamAll()).thenReturn(Stream.of(
+                new User(1L, "user123", "password123", "user@gmail.com", null),
+                new User(2L, "user456", "password456", "user456@gmail.com", null)
+        ));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/user/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(UserController.APPLICATION_NDJSON_VALUE))
+                .andExpect(content().string(
+                        "{\"id\":1,\"username\":\"user123\",\"email\":\"user@gmail.com\"}\n" +
+                        "{\"id\":2,\"username\":\"user456\",\"email\":\"user456@gmail.com\"}\n"));
+    }
+
+    @Test
+    void testExportUsersAsCborSequence() throws Exception {
+        Mockito.when(userRepository.streamAll()).thenReturn(Stream.of(
+                new User(1L, "user123", "password123", "user@gmail.com", null),
+                new User(2L, "user456", "password456", "user456@gmail.com", null)
+        ));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/user/export")
+                        .accept(UserController.APPLICATION_CBOR_SEQ_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(UserController.APPLICATION_CBOR_SEQ_VALUE))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        try (MappingIterator<User> users = cborMapper.readerFor(User.class).readValues(body)) {
+            assertEquals(List.of(1L, 2L), users.readAll().stream().map(User::getId).toList());
+        }
+    }
+
+    @Test
+    void testGetUserByIdWithMatchingETagReturnsNotModified() throws Exception {
+        Mockito.when(userRepository.findVersionById(21L)).thenReturn(Optional.of(3L));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/user/21")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+
+        Mockito.verify(userRepository, Mockito.never()).findById(any());
+    }
+
+    @Test
+    void testGetUserByIdAsCborHasItsOwnETag() throws Exception {
+        Mockito.when(userRepository.findVersionById(23L)).thenReturn(Optional.of(4L));
+        Mockito.when(userRepository.findById(23L)).thenReturn(Optional.of(new User(23L, "user123", "password123", "user@gmail.com", 4L)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/user/23")
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"4\""))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4-cbor\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/user/23")
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"4-cbor\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testGetUserByIdWithStaleETagReturnsUser() throws Exception {
+        Mockito.when(userRepository.findVersionById(22L)).thenReturn(Optional.of(4L));
+        Mockito.when(userRepository.findById(22L)).thenReturn(Optional.of(new User(22L, "user123", "password123", "user@gmail.com", 4L)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/user/22")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.version", Matchers.is(4)));
+    }
+
+    @Test
+    void testGetUsersWithMatchingETagReturnsNotModified() throws Exception {
+        Mockito.when(userRepository.changeToken()).thenReturn(42L);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/user")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"changes-42\""))
+                .andExpect(status().isNotModified());
+
+        Mockito.verify(userRepository, Mockito.never()).findPage(any(), Mockito.anyLong(), Mockito.anyInt());
+    }
+
+    @Test
+    void testSearchUsersEscapesLikeWildcards() throws Exception {
+        Mockito.when(userRepository.search("ric_%", "ric\\_\\%%", 0, 20)).thenReturn(List.of(USER_1));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/user/search")
+                        .param("q", " Ric_% "))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(1)))
+                .andExpect(jsonPath("$[0].username", Matchers.is("Ricardo")));
+    }
+
+    @Test
+    void testSearchUsersWithShortQueryThrowsBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/user/search")
+                        .param("q", "ri"))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verify(userRepository, Mockito.never()).search(any(), any(), Mockito.anyInt(), Mockito.anyInt());
+    }
+
+    @Test
+    void testGetUsersWithInvalidLimitThrowsBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/user")
+                        .param("limit", "0"))
+                .andExpect(status().isBadRequest());
     }
 
 
@@ -196,27 +506,25 @@ public class UserControllerTests {
     // If user updates successfully -> HttpStatus.OK
     @Test
     void testPutUserWhenFindByIdReturnsUserThrowsOk() throws Exception {
-        User existingUser = new User(1L, "user123", "password123", "user@gmail.com");
+        User updatedUser = new User(1L, "updatedUser", "password123", "user@gmail.com", null);
 
-        Mockito.when(userRepository.findById(existingUser.getId())).thenReturn(Optional.of(existingUser));
-
-        User updatedUser = new User(1L, "updatedUser", "password123", "user@gmail.com");
+        Mockito.when(userRepository.replace(1L, "user@gmail.com", null, "updatedUser", "password123"))
+                .thenReturn(Optional.of(updatedUser.toBuilder().version(1L).build()));
 
         mockMvc.perform(MockMvcRequestBuilders.put("/user/1")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(mapper.writeValueAsString(updatedUser)))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version", Matchers.is(1)));
     }
 
 
     // If userId does not match user.getUserId-> HttpStatus.BAD_REQUEST -> "UserId and request body id do not match"
     @Test
     void testPutUserWhenUserIdDoesNotMatchReturnsUserThrowsNotMatchingException() throws Exception {
-        User existingUser = new User(1L, "user123", "password123", "user@gmail.com");
+        Mockito.when(userRepository.existsById(1L)).thenReturn(true);
 
-        Mockito.when(userRepository.findById(existingUser.getId())).thenReturn(Optional.of(existingUser));
-
-        User updatedUser = new User(2L, "updatedUser", "password123", "updatedUser@gmail.com");
+        User updatedUser = new User(2L, "updatedUser", "password123", "updatedUser@gmail.com", null);
 
         mockMvc.perform(MockMvcRequestBuilders.put("/user/1")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -228,7 +536,7 @@ public class UserControllerTests {
     // If user does not exist -> HttpStatus.NOT_FOUND -> "UserId does not exist"
     @Test
     void testPutUserWhenFindByIdReturnsNullThrowsNotFound() throws Exception {
-        User user = new User(1L, "user123", "password123", "user@gmail.com");
+        User user = new User(1L, "user123", "password123", "user@gmail.com", null);
 
         Mockito.when(userRepository.findById(user.getId())).thenReturn(Optional.empty());
         mockMvc.perform(MockMvcRequestBuilders.put("/user/1")
@@ -239,11 +547,11 @@ public class UserControllerTests {
 
     @Test
     void testPutUserWithDifferentEmailThrowsUserCannotChangeException() throws Exception {
-        User user = new User(1L, "user123", "password123", "user@gmail.com");
+        User user = new User(1L, "user123", "password123", "user@gmail.com", null);
 
         Mockito.when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
 
-        User updatedUser = new User(1L, "user123", "password123", "userUpdated@gmail.com");
+        User updatedUser = new User(1L, "user123", "password123", "userUpdated@gmail.com", null);
 
         mockMvc.perform(MockMvcRequestBuilders.put("/user/1")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -266,7 +574,8 @@ public class UserControllerTests {
                 .email("user@gmail.com")
                 .build();
 
-        Mockito.when(userRepository.findById(existingUser1.getId())).thenReturn(Optional.of(existingUser1));
+        Mockito.when(userRepository.patch(1L, "user@gmail.com", null, "newUsername", null))
+                .thenReturn(Optional.of(existingUser1.toBuilder().username("newUsername").version(1L).build()));
 
         User updatedUser1 = User.builder()
                 .id(1L)
@@ -277,7 +586,9 @@ public class UserControllerTests {
         mockMvc.perform(MockMvcRequestBuilders.patch("/user/1")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(mapper.writeValueAsString(updatedUser1)))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username", Matchers.is("newUsername")))
+                .andExpect(jsonPath("$.password").doesNotExist());
 
         User existingUser2 = User.builder()
                 .id(1L)
@@ -286,7 +597,8 @@ public class UserControllerTests {
                 .email("user@gmail.com")
                 .build();
 
-        Mockito.when(userRepository.findById(existingUser2.getId())).thenReturn(Optional.of(existingUser2));
+        Mockito.when(userRepository.patch(1L, "user@gmail.com", null, null, "updatedPassword123"))
+                .thenReturn(Optional.of(existingUser2.toBuilder().password("updatedPassword123").version(2L).build()));
 
         User updatedUser2 = User.builder()
                 .id(1L)
@@ -303,14 +615,7 @@ public class UserControllerTests {
 
     @Test
     void testPatchUserUserIdNotMatching() throws Exception {
-        User existingUser = User.builder()
-                .id(1L)
-                .username("user123")
-                .password("password123")
-                .email("user@gmail.com")
-                .build();
-
-        Mockito.when(userRepository.findById(existingUser.getId())).thenReturn(Optional.of(existingUser));
+        Mockito.when(userRepository.existsById(1L)).thenReturn(true);
 
         User updatedUser = User.builder()
                 .id(2L) // Different ID
@@ -338,7 +643,7 @@ public class UserControllerTests {
 
     @Test
     void testPatchUserWithDifferentEmailThrowsUserCannotChangeException() throws Exception {
-        User user = new User(1L, "user123", "password123", "user@gmail.com");
+        User user = new User(1L, "user123", "password123", "user@gmail.com", null);
 
         Mockito.when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
 
@@ -353,6 +658,84 @@ public class UserControllerTests {
                 .andExpect(status().isConflict());
     }
 
+    @Test
+    void testPatchUserWithStaleVersionThrowsConflict() throws Exception {
+        User user = new User(1L, "user123", "password123", "user@gmail.com", 3L);
+
+        Mockito.when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+
+        User updatedUser = User.builder()
+                .id(1L)
+                .username("newUsername")
+                .email("user@gmail.com")
+                .version(2L)
+                .build();
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/user/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(updatedUser)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testPatchUserWithStaleIfMatchThrowsPreconditionFailed() throws Exception {
+        Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(new User(1L, "user123", "password123", "user@gmail.com", 3L)));
+
+        User updatedUser = User.builder()
+                .id(1L)
+                .username("newUsername")
+                .email("user@gmail.com")
+                .build();
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/user/1")
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(updatedUser)))
+                .andExpect(status().isPreconditionFailed());
+
+        Mockito.verify(userRepository).patch(1L, "user@gmail.com", 2L, "newUsername", null);
+    }
+
+    @Test
+    void testPutUserWithIfMatchReturnsNewETag() throws Exception {
+        User updatedUser = new User(1L, "updatedUser", "password123", "user@gmail.com", null);
+
+        Mockito.when(userRepository.replace(1L, "user@gmail.com", 2L, "updatedUser", "password123"))
+                .thenReturn(Optional.of(updatedUser.toBuilder().version(3L).build()));
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/user/1")
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(updatedUser)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+    }
+
+    @Test
+    void testPutUserWithCborIfMatchChecksTheSameVersion() throws Exception {
+        User updatedUser = new User(1L, "updatedUser", "password123", "user@gmail.com", null);
+
+        Mockito.when(userRepository.replace(1L, "user@gmail.com", 2L, "updatedUser", "password123"))
+                .thenReturn(Optional.of(updatedUser.toBuilder().version(3L).build()));
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/user/1")
+                        .header(HttpHeaders.IF_MATCH, "\"2-cbor\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(mapper.writeValueAsString(updatedUser)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-cbor\""));
+    }
+
+    @Test
+    void testPutUserWithWeakIfMatchThrowsPreconditionFailed() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.put("/user/1")
+                        .header(HttpHeaders.IF_MATCH, "W/\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new User(1L, "updatedUser", "password123", "user@gmail.com", null))))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     // ---------------- \\
 
     @Test
@@ -364,9 +747,7 @@ public class UserControllerTests {
                 .email("user@gmail.com")
                 .build();
 
-        Mockito.when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-
-        Mockito.doNothing().when(userRepository).deleteById(user.getId());
+        Mockito.when(userRepository.deleteRowById(user.getId())).thenReturn(1);
 
         try {
             mockMvc.perform(MockMvcRequestBuilders.delete("/user/1")
@@ -387,7 +768,7 @@ public class UserControllerTests {
                 .email("user@gmail.com")
                 .build();
 
-        Mockito.when(userRepository.findById(existingUser.getId())).thenReturn(Optional.empty());
+        Mockito.when(userRepository.deleteRowById(existingUser.getId())).thenReturn(0);
 
         try {
             mockMvc.perform(MockMvcRequestBuilders.delete("/user/" + existingUser.getId())
@@ -397,4 +778,35 @@ public class UserControllerTests {
             throw new RuntimeException(e);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testDeleteUsersByIdSkipsMissingIds() throws Exception {
+        Mockito.when(userRepository.deleteRowsById(Set.of(1L, 2L, 3L))).thenReturn(2);
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/user")
+                        .param("ids", "1,2,3,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested", Matchers.is(3)))
+                .andExpect(jsonPath("$.deleted", Matchers.is(2)));
+    }
+
+    @Test
+    void testDeleteUsersByIdWithTooManyIdsThrowsBadRequest() throws Exception {
+        String ids = String.join(",", Stream.iterate(1, i -> i + 1).limit(UserService.MAX_DELETE_SIZE + 1).map(String::valueOf).toList());
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/user")
+                        .param("ids", ids))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testExceptionsAreCountedByType() throws Exception {
+        Mockito.when(userRepository.findById(99L)).thenReturn(Optional.empty());
+        double before = meterRegistry.counter("users.exceptions", "exception", "UserNotFoundException").count();
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/user/99"))
+                .andExpect(status().isNotFound());
+
+        assertEquals(before + 1, meterRegistry.counter("users.exceptions", "exception", "UserNotFoundException").count());
+    }
+}
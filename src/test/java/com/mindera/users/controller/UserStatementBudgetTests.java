@@ -0,0 +1,176 @@
+package com.mindera.users.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindera.users.entity.User;
+import com.mindera.users.repository.UserRepository;
+import com.mindera.users.support.EmbeddedPostgresDatabase;
+import com.mindera.users.support.StatementBudget;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Runs against a real database so that every statement an endpoint issues is counted; raise a budget only on purpose.
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+public class UserStatementBudgetTests {
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresDatabase.registerProperties(registry);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void testGetUserByIdBudget() throws Exception {
+        User user = existingUser();
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/user/" + user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(StatementBudget.atMost(1));
+    }
+
+    @Test
+    void testGetUsersBudget() throws Exception {
+        existingUser();
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/user?limit=10"))
+                .andExpect(status().isOk())
+                .andExpect(StatementBudget.atMost(2));
+    }
+
+    @Test
+    void testGetUsersWithFieldsBudget() throws Exception {
+        existingUser();
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/user?limit=10&fields=email"))
+                .andExpect(status().isOk())
+                .andExpect(StatementBudget.atMost(2));
+    }
+
+    @Test
+    void testRevalidateUserByIdBudget() throws Exception {
+        User user = existingUser();
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/user/" + user.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + user.getVersion() + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(StatementBudget.atMost(1));
+    }
+
+    @Test
+    void testRevalidateUsersBudget() throws Exception {
+        existingUser();
+        String eTag = mockMvc.perform(MockMvcRequestBuilders.get("/user?limit=10"))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/user?limit=10")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(StatementBudget.atMost(1));
+    }
+
+    @Test
+    void testSearchUsersBudget() throws Exception {
+        existingUser();
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/user/search")
+                        .param("q", "usr123"))
+                .andExpect(status().isOk())
+                .andExpect(StatementBudget.atMost(1));
+    }
+
+    @Test
+    void testPostUserBudget() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/user")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(newUser())))
+                .andExpect(status().isOk())
+                .andExpect(StatementBudget.atMost(2));
+    }
+
+    @Test
+    void testImportUsersBudget() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/user/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(List.of(newUser(), newUser(), newUser()))))
+                .andExpect(status().isOk())
+                .andExpect(StatementBudget.atMost(3));
+    }
+
+    @Test
+    void testPatchUserBudget() throws Exception {
+        User user = existingUser();
+        User patch = User.builder().id(user.getId()).username("patched").email(user.getEmail()).build();
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/user/" + user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(patch)))
+                .andExpect(status().isOk())
+                .andExpect(StatementBudget.atMost(1));
+    }
+
+    @Test
+    void testPutUserBudget() throws Exception {
+        User user = existingUser();
+        User replacement = user.toBuilder().username("replaced").build();
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/user/" + user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(replacement)))
+                .andExpect(status().isOk())
+                .andExpect(StatementBudget.atMost(1));
+    }
+
+    @Test
+    void testDeleteUserBudget() throws Exception {
+        User user = existingUser();
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/user/" + user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(StatementBudget.atMost(1));
+    }
+
+    @Test
+    void testDeleteUsersBudget() throws Exception {
+        User first = existingUser();
+        User second = existingUser();
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/user")
+                        .param("ids", first.getId() + "," + second.getId() + ",0"))
+                .andExpect(status().isOk())
+                .andExpect(StatementBudget.atMost(1));
+    }
+
+    private User existingUser() {
+        return userRepository.save(newUser());
+    }
+
+    private static User newUser() {
+        return User.builder()
+                .username("user123")
+                .password("password123")
+                .email(UUID.randomUUID() + "@gmail.com")
+                .build();
+    }
+}
@@ -0,0 +1,49 @@
+package com.mindera.users.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.mindera.users.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class UserSerializerTests {
+
+    private final ObjectMapper databind = new ObjectMapper().addMixIn(User.class, WithoutPassword.class);
+    private final ObjectMapper handWritten = new ObjectMapper().registerModule(new SimpleModule().addSerializer(new UserSerializer()));
+
+    @Test
+    void testWritesSameJsonAsDatabind() throws Exception {
+        for (User user : List.of(
+                new User(1L, "user123", "password123", "user@gmail.com", 3L),
+                new User(2L, "user\"456", null, "user456@gmail.com", null))) {
+            assertEquals(databind.writeValueAsString(user), handWritten.writeValueAsString(user));
+        }
+    }
+
+    @Test
+    void testNeverWritesThePassword() throws Exception {
+        String json = handWritten.writeValueAsString(new User(1L, "user123", "password123", "user@gmail.com", 3L));
+
+        assertFalse(json.contains("password"), json);
+    }
+
+    @Test
+    void testPageWritesOnlySelectedFields() throws Exception {
+        UserPage page = new UserPage(List.of(
+                new User(1L, "user123", "password123", "user@gmail.com", 3L),
+                new User(2L, "user456", "password456", "user456@gmail.com", null)), EnumSet.of(UserField.ID, UserField.EMAIL, UserField.VERSION));
+
+        assertEquals("[{\"id\":1,\"email\":\"user@gmail.com\",\"version\":3},{\"id\":2,\"email\":\"user456@gmail.com\"}]",
+                handWritten.writeValueAsString(page));
+    }
+
+    @JsonIgnoreProperties("password")
+    private abstract static class WithoutPassword {
+    }
+}
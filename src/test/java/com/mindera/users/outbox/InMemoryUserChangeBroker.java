@@ -0,0 +1,29 @@
+package com.mindera.users.outbox;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Stand-in for RabbitMQ: keeps every published event in arrival order and can be told to reject the next batch.
+ */
+class InMemoryUserChangeBroker implements UserChangePublisher {
+    private final List<UserChangeEvent> events = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean failNext = new AtomicBoolean();
+
+    @Override
+    public void publish(List<UserChangeEvent> batch) {
+        if (failNext.getAndSet(false)) {
+            throw new IllegalStateException("Broker unavailable");
+        }
+        events.addAll(batch);
+    }
+
+    void failNext() {
+        failNext.set(true);
+    }
+
+    List<UserChangeEvent> events(Long userId) {
+        return events.stream().filter(event -> event.userId().equals(userId)).toList();
+    }
+}
@@ -0,0 +1,92 @@
+package com.mindera.users.outbox;
+
+import com.mindera.users.entity.User;
+import com.mindera.users.service.UserService;
+import com.mindera.users.support.EmbeddedPostgresDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class UserChangeRelayTests {
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresDatabase.registerProperties(registry);
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final InMemoryUserChangeBroker broker = new InMemoryUserChangeBroker();
+    private UserChangeRelay relay;
+
+    @BeforeEach
+    public void setup() {
+        relay = new UserChangeRelay(false, 2, 60_000, jdbcTemplate, transactionManager, broker);
+    }
+
+    @Test
+    void testChangesArePublishedInOrderPerUser() {
+        String email = UUID.randomUUID() + "@gmail.com";
+        User created = userService.addUser(user("outbox1", email));
+        userService.patchUser(created.getId(), User.builder().id(created.getId()).username("patched").email(email).build());
+        userService.deleteUserById(created.getId());
+
+        drain();
+
+        List<UserChangeEvent> events = broker.events(created.getId());
+        assertEquals(List.of(UserChangeEvent.Type.CREATED, UserChangeEvent.Type.UPDATED, UserChangeEvent.Type.DELETED),
+                events.stream().map(UserChangeEvent::type).toList());
+        assertEquals("patched", events.get(1).username());
+        assertTrue(events.get(0).sequence() < events.get(1).sequence() && events.get(1).sequence() < events.get(2).sequence());
+        assertEquals(0, outboxSize(created.getId()));
+    }
+
+    @Test
+    void testFailedPublishKeepsChangesForTheNextRelay() {
+        User created = userService.addUser(user("outbox2", UUID.randomUUID() + "@gmail.com"));
+
+        broker.failNext();
+        assertThrows(IllegalStateException.class, relay::relay);
+        assertEquals(1, outboxSize(created.getId()));
+
+        drain();
+
+        assertEquals(List.of(UserChangeEvent.Type.CREATED), broker.events(created.getId()).stream().map(UserChangeEvent::type).toList());
+        assertEquals(0, outboxSize(created.getId()));
+    }
+
+    private void drain() {
+        while (relay.relay() > 0) {
+        }
+    }
+
+    private long outboxSize(Long userId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM users_outbox WHERE user_id = ?", Long.class, userId);
+    }
+
+    private static User user(String username, String email) {
+        return User.builder()
+                .username(username)
+                .password("password123")
+                .email(email)
+                .build();
+    }
+}
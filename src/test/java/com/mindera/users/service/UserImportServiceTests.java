@@ -0,0 +1,178 @@
+package com.mindera.users.service;
+
+import com.mindera.users.cache.EmailBloomFilter;
+import com.mindera.users.cache.UserCache;
+import com.mindera.users.dto.UserImportResult;
+import com.mindera.users.entity.User;
+import com.mindera.users.repository.UserRepository;
+import com.mindera.users.support.EmbeddedPostgresDatabase;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class UserImportServiceTests {
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresDatabase.registerProperties(registry);
+    }
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private EmailBloomFilter emailBloomFilter;
+
+    @InjectMocks
+    private UserImportService userImportService;
+
+    @Test
+    public void testImportUsersReportsResultPerRow() {
+        List<User> users = Arrays.asList(
+                new User(null, "user123", "password123", "user@gmail.com", null),
+                new User(null, " ", "password123", "blank@gmail.com", null),
+                new User(null, "existing", "password123", "existing@gmail.com", null),
+                new User(null, "again", "password123", "USER@gmail.com", null)
+        );
+
+        when(emailBloomFilter.mightContain(anyString())).thenReturn(true);
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of("existing@gmail.com"));
+        when(userRepository.saveAllAndFlush(anyIterable())).thenAnswer(invocation -> {
+            Iterable<User> saved = invocation.getArgument(0);
+            saved.forEach(user -> user.setId(10L));
+            return saved;
+        });
+
+        List<UserImportResult> results = userImportService.importUsers(users.iterator());
+
+        assertEquals(4, results.size());
+        assertEquals(UserImportResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(10L, results.get(0).getId());
+        assertEquals(UserImportResult.Status.INVALID, results.get(1).getStatus());
+        assertEquals(UserImportResult.Status.DUPLICATE, results.get(2).getStatus());
+        assertNull(results.get(2).getId());
+        assertEquals(UserImportResult.Status.DUPLICATE, results.get(3).getStatus());
+        assertEquals(3, results.get(3).getIndex());
+
+        verify(userRepository, times(1)).findExistingEmails(Set.of("user@gmail.com", "existing@gmail.com"));
+        verify(userRepository, times(0)).findByEmail(any());
+        verify(userRepository, times(0)).save(any(User.class));
+        verify(entityManager, times(1)).clear();
+        verify(emailBloomFilter, times(1)).recordFalsePositives(1);
+    }
+
+    @Test
+    public void testImportUsersSkipsLookupForEmailsRuledOutByFilter() {
+        List<User> users = List.of(
+                new User(null, "user123", "password123", "user@gmail.com", null),
+                new User(null, "user456", "password456", "user456@gmail.com", null)
+        );
+
+        when(emailBloomFilter.mightContain("user@gmail.com")).thenReturn(false);
+        when(emailBloomFilter.mightContain("user456@gmail.com")).thenReturn(true);
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+        when(userRepository.saveAllAndFlush(anyIterable())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<UserImportResult> results = userImportService.importUsers(users.iterator());
+
+        assertEquals(UserImportResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(UserImportResult.Status.CREATED, results.get(1).getStatus());
+        verify(userRepository, times(1)).findExistingEmails(Set.of("user456@gmail.com"));
+        verify(emailBloomFilter, times(1)).add("user@gmail.com");
+        verify(emailBloomFilter, times(1)).add("user456@gmail.com");
+    }
+
+    @Test
+    public void testImportUsersWithoutPossibleDuplicatesDoesNotQueryEmails() {
+        List<User> users = List.of(new User(null, "user123", "password123", "user@gmail.com", null));
+
+        when(userRepository.saveAllAndFlush(anyIterable())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        userImportService.importUsers(users.iterator());
+
+        verify(userRepository, times(0)).findExistingEmails(anyCollection());
+    }
+
+    @Test
+    public void testImportUsersFallsBackToSingleRowsWhenBatchHitsUniqueIndex() {
+        User user1 = new User(null, "user123", "password123", "user@gmail.com", null);
+        User user2 = new User(null, "user456", "password456", "user456@gmail.com", null);
+
+        when(userRepository.saveAllAndFlush(anyIterable())).thenThrow(emailConflict());
+        when(userRepository.save(user1)).thenAnswer(invocation -> {
+            user1.setId(11L);
+            return user1;
+        });
+        when(userRepository.save(user2)).thenThrow(emailConflict());
+
+        List<UserImportResult> results = userImportService.importUsers(List.of(user1, user2).iterator());
+
+        assertEquals(UserImportResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(UserImportResult.Status.DUPLICATE, results.get(1).getStatus());
+    }
+
+    @Test
+    public void testImportUsersDoesNotReportOtherConstraintViolationsAsDuplicates() {
+        User user = new User(null, "user123", "password123", "user@gmail.com", null);
+
+        when(userRepository.saveAllAndFlush(anyIterable())).thenThrow(new DataIntegrityViolationException("null value in column",
+                new ConstraintViolationException("null value in column", null, "users_username_not_null")));
+
+        assertThrows(DataIntegrityViolationException.class, () -> userImportService.importUsers(List.of(user).iterator()));
+        verify(userRepository, times(0)).save(any(User.class));
+    }
+
+    @Test
+    public void testImportUsersQueriesExistingEmailsOncePerChunk() {
+        List<User> users = new ArrayList<>();
+        IntStream.range(0, UserImportService.CHUNK_SIZE + 1)
+                .forEach(i -> users.add(new User(null, "user" + i, "password", "user" + i + "@gmail.com", null)));
+
+        when(emailBloomFilter.mightContain(anyString())).thenReturn(true);
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+        when(userRepository.saveAllAndFlush(anyIterable())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<UserImportResult> results = userImportService.importUsers(users.iterator());
+
+        assertEquals(UserImportService.CHUNK_SIZE + 1, results.size());
+        assertEquals(UserImportService.CHUNK_SIZE, results.get(UserImportService.CHUNK_SIZE).getIndex());
+        verify(userRepository, times(2)).findExistingEmails(anyCollection());
+        verify(userRepository, times(2)).saveAllAndFlush(anyIterable());
+    }
+
+    private static DataIntegrityViolationException emailConflict() {
+        return new DataIntegrityViolationException("duplicate key",
+                new ConstraintViolationException("duplicate key", null, "users_email_lower_key"));
+    }
+}
@@ -1,15 +1,33 @@
 package com.mindera.users.service;
 
+import com.mindera.users.cache.EmailBloomFilter;
+import com.mindera.users.cache.SharedUserCache;
+import com.mindera.users.cache.UserCache;
+import com.mindera.users.dto.UserDeleteResult;
+import com.mindera.users.dto.UserField;
 import com.mindera.users.entity.User;
 import com.mindera.users.exceptions.*;
 import com.mindera.users.repository.UserRepository;
+import com.mindera.users.support.EmbeddedPostgresDatabase;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.boot.test.context.SpringBootTest;
-
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
@@ -18,9 +36,27 @@ import static org.mockito.Mockito.*;
 @SpringBootTest
 class UserServiceTests {
 
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresDatabase.registerProperties(registry);
+    }
+
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private EmailBloomFilter emailBloomFilter;
+
+    @Spy
+    private UserWriteBehind userWriteBehind = new UserWriteBehind(false, 500, 50, mock(JdbcTemplate.class), mock(PlatformTransactionManager.class),
+            new UserCache(100, 60_000, true, 5_000, SharedUserCache.NONE));
+
+    @Spy
+    private UserCache userCache = new UserCache(100, 60_000, true, 5_000, SharedUserCache.NONE);
+
     @InjectMocks
     private UserService userService;
 
@@ -33,12 +69,17 @@ class UserServiceTests {
                 .email("user@gmail.com")
                 .build();
 
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+            User savedUser = invocation.getArgument(0);
+            savedUser.setId(1L);
+            return savedUser;
+        });
         User createdUser = userService.addUser(user);
 
         Assertions.assertNotNull(createdUser);
         assertEquals("user123", createdUser.getUsername());
         verify(userRepository, times(1)).save(user);
+        verify(emailBloomFilter, times(1)).add("user@gmail.com");
     }
 
 
@@ -141,11 +182,81 @@ class UserServiceTests {
 
     @Test
     void testAddUserWithExistingEmail() {
-        User existingUser = new User(2L, "existingUser", "password456", "existingUser@gmail.com");
+        User existingUser = new User(2L, "existingUser", "password456", "existingUser@gmail.com", null);
 
-        when(userRepository.findByEmail(existingUser.getEmail())).thenReturn(Optional.of(existingUser));
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint",
+                new ConstraintViolationException("duplicate key value violates unique constraint", null, "users_email_lower_key")));
 
         Assertions.assertThrows(UserAlreadyExistsException.class, () -> userService.addUser(existingUser));
+        verify(userRepository, times(0)).findByEmail(any());
+    }
+
+    @Test
+    void testAddUserWithOtherConstraintViolationIsNotAConflict() {
+        User user = new User(2L, "user123", "password123", "user@gmail.com", null);
+
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException("value too long for type character varying(255)",
+                new ConstraintViolationException("value too long for type character varying(255)", null, "users_username_check")));
+
+        Assertions.assertThrows(DataIntegrityViolationException.class, () -> userService.addUser(user));
+    }
+
+    @Test
+    public void testGetUsersReadsPageAfterCursor() {
+        User user = new User(5L, "user123", "password123", "user@gmail.com", null);
+
+        when(userRepository.findPage(UserField.DEFAULT, 4L, 10)).thenReturn(List.of(user));
+
+        List<User> users = userService.getUsers(4L, 10, UserField.DEFAULT);
+
+        assertEquals(1, users.size());
+        verify(userRepository, times(1)).findPage(UserField.DEFAULT, 4L, 10);
+        verify(userRepository, times(0)).findAll();
+    }
+
+    @Test
+    public void testGetUsersWithoutCursorStartsFromBeginning() {
+        userService.getUsers(null, 10, UserField.DEFAULT);
+
+        verify(userRepository, times(1)).findPage(UserField.DEFAULT, 0L, 10);
+    }
+
+    @Test
+    public void testGetUsersWithLimitOutOfRangeThrowsInvalidPageRequestException() {
+        Assertions.assertThrows(InvalidPageRequestException.class, () -> userService.getUsers(null, 0, UserField.DEFAULT));
+        Assertions.assertThrows(InvalidPageRequestException.class, () -> userService.getUsers(null, UserService.MAX_PAGE_SIZE + 1, UserField.DEFAULT));
+    }
+
+    @Test
+    public void testExportUsersStreamsAndDetachesEachUser() {
+        User user1 = new User(1L, "user123", "password123", "user@gmail.com", null);
+        User user2 = new User(2L, "user456", "password456", "user456@gmail.com", null);
+
+        when(userRepository.streamAll()).thenReturn(Stream.of(user1, user2));
+
+        List<User> exported = new ArrayList<>();
+        userService.exportUsers(exported::add);
+
+        assertEquals(List.of(user1, user2), exported);
+        verify(entityManager, times(1)).detach(user1);
+        verify(entityManager, times(1)).detach(user2);
+        verify(userRepository, times(0)).findAll();
+    }
+
+    @Test
+    public void testExportAndSearchReturnPendingPatches() {
+        User stored = new User(1L, "user123", "password123", "user@gmail.com", 4L);
+        User pendingUser = stored.toBuilder().username("patched").version(5L).build();
+        doReturn(true).when(userWriteBehind).isEnabled();
+        doReturn(Optional.of(pendingUser)).when(userWriteBehind).pending(1L);
+        when(userRepository.streamAll()).thenReturn(Stream.of(stored));
+        when(userRepository.search(anyString(), anyString(), anyInt(), anyInt())).thenReturn(List.of(stored));
+
+        List<User> exported = new ArrayList<>();
+        userService.exportUsers(exported::add);
+
+        assertEquals(List.of(pendingUser), exported);
+        assertEquals(List.of(pendingUser), userService.searchUsers("user", 0, 20));
     }
 
     @Test
@@ -165,6 +276,85 @@ class UserServiceTests {
         verify(userRepository, times(1)).findById(user.getId());
     }
 
+    @Test
+    public void testGetUserByIdIsServedFromCacheOnSecondCall() {
+        User user = new User(1L, "user123", "password123", "user@gmail.com", null);
+
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+
+        userService.getUserById(user.getId());
+        Optional<User> retrievedUser = userService.getUserById(user.getId());
+
+        assertEquals("user123", retrievedUser.get().getUsername());
+        verify(userRepository, times(1)).findById(user.getId());
+    }
+
+    @Test
+    public void testGetUserByIdCachesMisses() {
+        when(userRepository.findById(9L)).thenReturn(Optional.empty());
+
+        Assertions.assertThrows(UserNotFoundException.class, () -> userService.getUserById(9L));
+        Assertions.assertThrows(UserNotFoundException.class, () -> userService.getUserById(9L));
+
+        verify(userRepository, times(1)).findById(9L);
+    }
+
+    @Test
+    public void testPutUserRefreshesCachedUser() {
+        User user = new User(1L, "user123", "password123", "user@gmail.com", null);
+
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        userService.getUserById(user.getId());
+
+        when(userRepository.replace(1L, "user@gmail.com", null, "renamed", "password123"))
+                .thenReturn(Optional.of(new User(1L, "renamed", "password123", "user@gmail.com", 1L)));
+        userService.putUser(user.getId(), new User(1L, "renamed", "password123", "user@gmail.com", null));
+
+        assertEquals("renamed", userService.getUserById(user.getId()).get().getUsername());
+    }
+
+    @Test
+    public void testDeleteUserByIdEvictsCachedUser() {
+        User user = new User(1L, "user123", "password123", "user@gmail.com", null);
+
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userRepository.deleteRowById(user.getId())).thenReturn(1);
+        userService.getUserById(user.getId());
+
+        userService.deleteUserById(user.getId());
+
+        verify(userCache, times(1)).evict(user.getId());
+        verify(userRepository, times(1)).findById(user.getId());
+    }
+
+    @Test
+    public void testGetUserVersionUsesCachedUser() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User(1L, "user123", "password123", "user@gmail.com", 5L)));
+        userService.getUserById(1L);
+
+        assertEquals(Optional.of(5L), userService.getUserVersion(1L));
+        verify(userRepository, never()).findVersionById(any());
+    }
+
+    @Test
+    public void testDeleteUserByIdReturnsNothingThrowsUserNotFoundException() {
+        Assertions.assertThrows(UserNotFoundException.class, () -> userService.deleteUserById(1L));
+
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testDeleteUsersByIdCountsOnlyDeletedUsers() {
+        when(userRepository.deleteRowsById(Set.of(1L, 2L))).thenReturn(1);
+
+        UserDeleteResult result = userService.deleteUsersById(List.of(1L, 2L, 1L));
+
+        assertEquals(2, result.getRequested());
+        assertEquals(1, result.getDeleted());
+        verify(userCache, times(1)).evict(1L);
+        verify(userCache, times(1)).evict(2L);
+    }
+
     @Test
     public void testGetUserByIdReturnsNullThrowsUserNotFoundException() {
         User user = User.builder()
@@ -184,16 +374,7 @@ class UserServiceTests {
 
 
     @Test
-    public void testPutUserWhenFindById() {
-        User user = User.builder()
-                .id(1L)
-                .username("user123")
-                .password("password123")
-                .email("user@gmail.com")
-                .build();
-
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-
+    public void testPutUserUpdatesInOneStatement() {
         User updatedUser = User.builder()
                 .id(1L)
                 .username("user")
@@ -201,15 +382,19 @@ class UserServiceTests {
                 .email("user@gmail.com")
                 .build();
 
-        userService.putUser(user.getId(), updatedUser);
+        when(userRepository.replace(1L, "user@gmail.com", null, "user", "password123"))
+                .thenReturn(Optional.of(updatedUser.toBuilder().version(1L).build()));
+
+        User user = userService.putUser(1L, updatedUser);
 
         assertEquals("user", user.getUsername());
         assertEquals("password123", user.getPassword());
         assertEquals("user@gmail.com", user.getEmail());
+        assertEquals(1L, user.getVersion());
 
-        verify(userRepository, times(1)).findById(user.getId());
-
-        verify(userRepository, times(1)).save(updatedUser);
+        verify(userRepository, times(1)).replace(1L, "user@gmail.com", null, "user", "password123");
+        verify(userRepository, never()).findById(any());
+        verify(userRepository, never()).save(any(User.class));
     }
 
 
@@ -286,4 +471,45 @@ class UserServiceTests {
         });
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void testPatchUserSkipsBlankFields() {
+        User patch = User.builder()
+                .id(1L)
+                .username(" ")
+                .password("newPassword")
+                .email("user@gmail.com")
+                .build();
+
+        when(userRepository.patch(1L, "user@gmail.com", null, null, "newPassword"))
+                .thenReturn(Optional.of(new User(1L, "user123", "newPassword", "user@gmail.com", 1L)));
+
+        User user = userService.patchUser(1L, patch);
+
+        assertEquals("user123", user.getUsername());
+        assertEquals("newPassword", user.getPassword());
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testPatchUserWithStaleVersionThrowsUserVersionConflictException() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User(1L, "user123", "password123", "user@gmail.com", 3L)));
+
+        User patch = User.builder()
+                .id(1L)
+                .username("renamed")
+                .email("user@gmail.com")
+                .version(2L)
+                .build();
+
+        Assertions.assertThrows(UserVersionConflictException.class, () -> userService.patchUser(1L, patch));
+        verify(userRepository, times(1)).patch(1L, "user@gmail.com", 2L, "renamed", null);
+    }
+
+    @Test
+    public void testPatchUserWithMismatchingIdOnMissingUserThrowsUserNotFoundException() {
+        when(userRepository.existsById(1L)).thenReturn(false);
+
+        Assertions.assertThrows(UserNotFoundException.class, () -> userService.patchUser(1L, User.builder().id(2L).build()));
+    }
+}
@@ -0,0 +1,121 @@
+package com.mindera.users.service;
+
+import com.mindera.users.cache.SharedUserCache;
+import com.mindera.users.cache.UserCache;
+import com.mindera.users.entity.User;
+import com.mindera.users.exceptions.UserCannotChangeException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserWriteBehindTests {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final UserWriteBehind writeBehind = new UserWriteBehind(true, 500, 60_000, jdbcTemplate,
+            mock(PlatformTransactionManager.class), new UserCache(100, 60_000, true, 5_000, SharedUserCache.NONE));
+
+    @AfterEach
+    void tearDown() {
+        writeBehind.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPatchesToOneUserCoalesceIntoOneWrite() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{1}});
+        User stored = new User(1L, "user123", "password123", "user@gmail.com", 4L);
+
+        User first = writeBehind.patch(1L, () -> stored, user -> user.toBuilder().username("first").build());
+        User patched = writeBehind.patch(1L, () -> fail("pending image should be used"), user -> user.toBuilder().password("second").build());
+
+        assertEquals(2, writeBehind.acceptedUpdates());
+        assertEquals(5L, first.getVersion());
+        assertEquals(new User(1L, "first", "second", "user@gmail.com", 6L), patched);
+        assertEquals(Optional.of(patched), writeBehind.pending(1L));
+
+        writeBehind.flush();
+
+        ArgumentCaptor<Collection<User>> batch = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("UPDATE users"), batch.capture(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(List.of(patched), List.copyOf(batch.getValue()));
+        assertEquals(Optional.empty(), writeBehind.pending(1L));
+        assertEquals(2.0, writeBehind.coalescingRatio());
+    }
+
+    @Test
+    void testEveryAcceptedPatchIsJournaledBeforeItIsAnswered() {
+        User stored = new User(1L, "user123", "password123", "user@gmail.com", 4L);
+
+        writeBehind.patch(1L, () -> stored, user -> user.toBuilder().username("first").build());
+        writeBehind.patch(1L, () -> stored, user -> user.toBuilder().username("second").build());
+
+        verify(jdbcTemplate).update(startsWith("INSERT INTO users_pending_updates"), eq(1L), eq("first"), eq("password123"), eq("user@gmail.com"), eq(5L));
+        verify(jdbcTemplate).update(startsWith("INSERT INTO users_pending_updates"), eq(1L), eq("second"), eq("password123"), eq("user@gmail.com"), eq(6L));
+    }
+
+    @Test
+    void testPatchThatCannotBeJournaledIsNotAccepted() {
+        when(jdbcTemplate.update(startsWith("INSERT INTO users_pending_updates"), any(Object[].class)))
+                .thenThrow(new IllegalStateException("database unavailable"));
+
+        assertThrows(IllegalStateException.class, () -> writeBehind.patch(1L,
+                () -> new User(1L, "user123", "password123", "user@gmail.com", 4L), user -> user));
+
+        assertEquals(Optional.empty(), writeBehind.pending(1L));
+    }
+
+    @Test
+    void testRejectedPatchLeavesNothingPending() {
+        User stored = new User(1L, "user123", "password123", "user@gmail.com", 4L);
+
+        assertThrows(UserCannotChangeException.class, () -> writeBehind.patch(1L, () -> stored, user -> {
+            throw new UserCannotChangeException("User email cannot be updated!");
+        }));
+
+        assertEquals(Optional.empty(), writeBehind.pending(1L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testWriteThroughWritesThePendingImageFirst() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{1}});
+        User patched = writeBehind.patch(1L, () -> new User(1L, "user123", "password123", "user@gmail.com", 4L), user -> user);
+
+        String result = writeBehind.writeThrough(1L, () -> {
+            ArgumentCaptor<Collection<User>> batch = ArgumentCaptor.forClass(Collection.class);
+            verify(jdbcTemplate).batchUpdate(startsWith("UPDATE users"), batch.capture(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+            assertEquals(List.of(patched), List.copyOf(batch.getValue()));
+            return "replaced";
+        });
+
+        assertEquals("replaced", result);
+        assertEquals(Optional.empty(), writeBehind.pending(1L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDiscardDropsPendingPatch() {
+        writeBehind.patch(1L, () -> new User(1L, "user123", "password123", "user@gmail.com", 4L), user -> user);
+
+        writeBehind.discard(List.of(1L));
+        writeBehind.flush();
+
+        assertEquals(Optional.empty(), writeBehind.pending(1L));
+        verify(jdbcTemplate).batchUpdate(startsWith("DELETE FROM users_pending_updates WHERE user_id = ?"), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("UPDATE users"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+}
@@ -0,0 +1,23 @@
+package com.mindera.users.support;
+
+import com.mindera.users.statement.StatementStatisticsInterceptor;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class StatementBudget {
+
+    private StatementBudget() {
+    }
+
+    public static ResultMatcher atMost(int budget) {
+        return result -> {
+            String count = result.getResponse().getHeader(StatementStatisticsInterceptor.COUNT_HEADER);
+            assertNotNull(count, "Response has no " + StatementStatisticsInterceptor.COUNT_HEADER + " header, is myapp.statement-stats.enabled set?");
+            int used = Integer.parseInt(count);
+            assertTrue(used <= budget, () -> result.getRequest().getMethod() + " " + result.getRequest().getRequestURI()
+                    + " ran " + used + " SQL statements, its budget is " + budget);
+        };
+    }
+}